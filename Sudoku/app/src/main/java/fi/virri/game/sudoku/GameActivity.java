@@ -8,7 +8,6 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.text.InputFilter;
 import android.text.InputType;
-import android.util.Pair;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -20,6 +19,7 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModelProvider;
 
@@ -41,12 +41,18 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import fi.virri.game.sudoku.database.SudokuDataObject;
 import fi.virri.game.sudoku.game.Board;
-import fi.virri.game.sudoku.game.Cell;
+import fi.virri.game.sudoku.game.BoardChange;
+import fi.virri.game.sudoku.game.MoveLog;
 import fi.virri.game.sudoku.game.SudokuBoardView;
 import fi.virri.game.sudoku.game.SudokuViewModel;
+import fi.virri.game.sudoku.generator.CancellationToken;
+import fi.virri.game.sudoku.generator.PuzzlePool;
 import fi.virri.game.sudoku.generator.Sudoku;
 
 public class GameActivity extends AppCompatActivity implements SudokuBoardView.OnTouchListener {
@@ -65,6 +71,8 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
     private TextView timeView;
 
     private Sudoku mSudoku; // New generated Sudoku board
+    private final ExecutorService mGenerationExecutor = Executors.newSingleThreadExecutor(); // Takes the new game off the UI thread
+    private final CancellationToken mGenerationToken = new CancellationToken(); // Cancelled in onDestroy - stops a generation still running
     private SudokuDataObject mLoadedState; // Loaded game
     private SudokuDataObject mSavedThisSessionState; // A game saved this session
     private SudokuViewModel mSudokuViewModel;
@@ -109,8 +117,7 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
 
         mSudokuNameLiveData.observe(this, this::saveSudokuData); // Save name changes -> save the game
         mSudokuViewModel = new ViewModelProvider(this).get(SudokuViewModel.class);
-        mSudokuViewModel.sudokuGame.selectedCellLiveData.observe(this, this::updateSelectedCellUI); // Selected cell changes -> update SudokuBoardView
-        mSudokuViewModel.sudokuGame.cellsLiveData.observe(this, this::updateCells); // Something in cells changes -> update SudokuBoardView
+        mSudokuViewModel.sudokuGame.boardChangeLiveData.observe(this, this::updateBoard); // Cells or selected cell change -> update SudokuBoardView
         mSudokuViewModel.sudokuGame.isBoardSolvedLiveData.observe(this, this::setSolvedState); // Board is solved -> end the game
         mSudokuViewModel.sudokuGame.isTakingNotesLiveData.observe(this, this::updateNoteTakingUI); // Note taking state changes -> change icon of notes button
         mSudokuViewModel.sudokuGame.highlightedKeysLiveData.observe(this, this::updateHighlightedKeys); // Selected cell has notes -> update highlighted keys
@@ -122,10 +129,8 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
             mLoadedState = getIntent().getParcelableExtra("sudokuDataObject");
             loadSaveState();
         }
-        else{ // Game is a new game
+        else{ // Game is a new game - board is shown when the puzzle is ready
             generateSudoku();
-            mSudokuViewModel.sudokuGame.initializeBoard(mSudoku.board, mSudoku.solvedBoard);
-            isRunning = true;
         }
 
         // Stopwatch
@@ -148,22 +153,42 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
         startTimer(); // Start the stopwatch
     }
 
-    // Generate a new game with the given difficulty
+    // Take a new game with the given difficulty from the pre-generated pool
+    // The pool generates on demand only if no puzzle of the difficulty is ready - on a background thread,
+    // stopped if the activity is destroyed first
     private void generateSudoku(){
-        int EASY = 1;
-        int MEDIUM = 2;
-        int HARD = 3;
-        if(mDifficulty == EASY) {
-            mSudoku = Sudoku.generate(9, 40);
+        int difficulty = mDifficulty;
+        mGenerationExecutor.execute(() -> {
+            try{
+                Sudoku sudoku = PuzzlePool.getInstance().take(difficulty, mGenerationToken);
+                runOnUiThread(() -> startNewGame(sudoku));
+            }
+            catch(CancellationException ignored){
+                // Activity destroyed before the puzzle was ready
+            }
+        });
+    }
+
+    // Show the new game and start the stopwatch
+    private void startNewGame(@NonNull Sudoku sudoku){
+        if(mGenerationToken.isCancelled()){ // Activity destroyed meanwhile
+            return;
         }
-        else if(mDifficulty == MEDIUM) {
-            mSudoku = Sudoku.generate(9, 45);
+        mSudoku = sudoku;
+        mSudokuViewModel.sudokuGame.initializeBoard(mSudoku.board, mSudoku.solvedBoard);
+        if(getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)){
+            isRunning = true;
         }
-        else if(mDifficulty == HARD){
-            mSudoku = Sudoku.generate(9, 50);
+        else{ // Paused while generating - onResume starts the stopwatch
+            wasRunning = true;
         }
     }
 
+    // New game not generated yet - the board can not be used
+    private boolean isGenerating(){
+        return mSudokuViewModel.sudokuGame.getBoard() == null;
+    }
+
     // Load a save state
     private void loadSaveState() {
         mDifficulty = mLoadedState.getDifficulty(); // Difficulty
@@ -189,24 +214,19 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
         mHandler.post(mRunnable); // Handler starts posting
     }
 
-    // Update cells data -> board is drawn
-    private void updateCells(List<Cell> cells){
-        mSudokuBoardView.updateCells(cells);
-    }
-
-    // Update selected cell -> board is drawn
-    private void updateSelectedCellUI(@NonNull Pair<Integer, Integer> cell){
-        mSudokuBoardView.updateSelectedCellUI(cell.first, cell.second);
+    // Update changed cells -> changed cells are drawn
+    private void updateBoard(@NonNull BoardChange change){
+        mSudokuBoardView.applyChange(change);
     }
 
     // Update highlighted keys
     // Key is highlighted if the selected cell contains a note of the key's number
-    private void updateHighlightedKeys(List<Integer> list) {
+    private void updateHighlightedKeys(int noteMask) {
         int i = 0;
         for(Button button : numberButtons){
             i++;
             int color;
-            if(list.contains(i)){ // Notes contains the number of the key
+            if((noteMask & (1 << (i - 1))) != 0){ // Notes contains the number of the key
                 color = ContextCompat.getColor(this, R.color.green_noted);
             }
             else{ // Notes does not contain the number of the key
@@ -236,6 +256,9 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
     // Implemented SudokuBoardView.OnTouchListener - update selected cell
     @Override
     public void onCellTouched(int row, int col) {
+        if(isGenerating()){
+            return;
+        }
         mSudokuViewModel.sudokuGame.updateSelectedCell(row, col);
     }
 
@@ -251,6 +274,22 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
         mSudokuViewModel.sudokuGame.handleErase();
     }
 
+    // Handle undo button press
+    public void onUndoButtonPressed(View view) {
+        if(isGenerating()){
+            return;
+        }
+        mSudokuViewModel.sudokuGame.undo();
+    }
+
+    // Handle redo button press
+    public void onRedoButtonPressed(View view) {
+        if(isGenerating()){
+            return;
+        }
+        mSudokuViewModel.sudokuGame.redo();
+    }
+
     // Handle notes button press
     public void onNotesButtonPressed(View view) {
         mSudokuViewModel.sudokuGame.changeNoteTakingState();
@@ -258,6 +297,9 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
 
     // Handle reset button press - reset needs confirmation
     public void onResetButtonPressed(View view) {
+        if(isGenerating()){
+            return;
+        }
         confirmReset();
     }
 
@@ -277,7 +319,7 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
 
     // Handle solve board button press - invalidates solve for leaderboards
     public void onSolveBoardButtonPressed(View view) {
-        if(!mSudokuViewModel.sudokuGame.getIsBoardSolved()){
+        if(!isGenerating() && !mSudokuViewModel.sudokuGame.getIsBoardSolved()){
             solveButtonPressed = true;
             mSudokuViewModel.sudokuGame.solveBoard();
         }
@@ -285,7 +327,7 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
 
     // Handle solve cell button press - invalidates solve for leaderboards
     public void onSolveCellButtonPressed(View view) {
-        if(!mSudokuViewModel.sudokuGame.getIsBoardSolved()){
+        if(!isGenerating() && !mSudokuViewModel.sudokuGame.getIsBoardSolved()){
             solveButtonPressed = true;
             mSudokuViewModel.sudokuGame.solveCell();
         }
@@ -326,6 +368,9 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
     // Handle save button press
     // Note: user must be email authenticated to use the save feature.
     public void onSaveButtonPressed(View view) {
+        if(isGenerating()){
+            return;
+        }
         if(currentUser != null){
             if(currentUser.getEmail() != null){ // Current user is email authenticated
                 if(!mSudokuViewModel.sudokuGame.getIsBoardSolved()){ // Board is not solved - solved games are saved automatically and can not be saved by the user
@@ -398,10 +443,13 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
         sudokuDataObject.setSelectedCol(mSudokuViewModel.sudokuGame.getSelectedCol());
         Board board = mSudokuViewModel.sudokuGame.getBoard();
         sudokuDataObject.setBoardSize(board.size);
-        sudokuDataObject.setBoardCells(board.cells);
-
-        sudokuDataObject.setOriginalBoard(mSudokuViewModel.sudokuGame.getOriginalBoard());
-        sudokuDataObject.setSolvedBoard(mSudokuViewModel.sudokuGame.getSolvedBoard());
+        sudokuDataObject.setGivens(board.encodeGivens());
+        sudokuDataObject.setSolution(board.encodeSolution());
+        sudokuDataObject.setValues(board.encodeValues());
+        sudokuDataObject.setNotes(board.encodeNotes());
+        MoveLog moveLog = mSudokuViewModel.sudokuGame.getMoveLog();
+        sudokuDataObject.setMoves(moveLog.encode());
+        sudokuDataObject.setMoveCursor(moveLog.getCursor());
         sudokuDataObject.setTakingNotes(mSudokuViewModel.sudokuGame.getIsTakingNotes());
         sudokuDataObject.setBoardSolved(mSudokuViewModel.sudokuGame.getIsBoardSolved());
         sudokuDataObject.setSolveButtonPressed(solveButtonPressed);
@@ -462,10 +510,12 @@ public class GameActivity extends AppCompatActivity implements SudokuBoardView.O
         }
     }
 
-    // Stop the stopwatch when exiting GameActivity
+    // Stop the stopwatch and a generation still running when exiting GameActivity
     @Override
     protected void onDestroy() {
         super.onDestroy();
         mHandler.removeCallbacks(mRunnable);
+        mGenerationToken.cancel();
+        mGenerationExecutor.shutdown();
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package fi.virri.game.sudoku;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import fi.virri.game.sudoku.generator.GenerationStats;
+import fi.virri.game.sudoku.generator.PuzzlePool;
+import fi.virri.game.sudoku.generator.PuzzleStore;
+
+// Starts filling the puzzle pool when the process starts and stops generation under memory pressure
+// Ready puzzles are kept on disk so a cold start does not have to generate
+// Debug builds also collect generation stats and log them when the app goes to the background
+public class SudokuApplication extends Application {
+    private GenerationStats generationStats; // Debug builds only
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        PuzzlePool.getInstance().attachStore(new PuzzleStore(getFilesDir()));
+        if((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0){
+            generationStats = new GenerationStats();
+            PuzzlePool.getInstance().setStats(generationStats);
+        }
+        PuzzlePool.getInstance().refill(); // Generate puzzles in the background before a game is started
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if(level >= TRIM_MEMORY_UI_HIDDEN){ // App went to the background - persist ready puzzles (off the UI thread) before the process can be killed
+            PuzzlePool.getInstance().persist();
+            if(generationStats != null){
+                Log.d("PuzzlePool", generationStats.toString());
+            }
+        }
+        else if(level >= TRIM_MEMORY_RUNNING_LOW){ // System is running low on memory - stop generating, ready puzzles are kept
+            PuzzlePool.getInstance().cancel();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        PuzzlePool.getInstance().cancel();
+    }
+}
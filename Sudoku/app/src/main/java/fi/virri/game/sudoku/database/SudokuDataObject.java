@@ -5,10 +5,10 @@ import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import fi.virri.game.sudoku.game.Cell;
+import fi.virri.game.sudoku.game.Board;
 
 public class SudokuDataObject implements Parcelable {
     private String key; // Unique key
@@ -21,9 +21,13 @@ public class SudokuDataObject implements Parcelable {
     private int selectedRow;
     private int selectedCol;
     private int boardSize;
-    private List<Integer> originalBoard;
-    private List<Integer> solvedBoard;
-    private List<Cell> boardCells;
+    // Packed by Board - one character per cell for the digits, a hex note mask per cell for the notes
+    private String givens;
+    private String solution;
+    private String values;
+    private String notes;
+    private String moves; // Packed by MoveLog, null in saves made before undo/redo
+    private int moveCursor; // Moves applied, the rest can be redone
     private boolean isTakingNotes;
     private boolean isBoardSolved;
     private boolean solveButtonPressed;
@@ -40,12 +44,12 @@ public class SudokuDataObject implements Parcelable {
         selectedCol = in.readInt();
         boardSize = in.readInt();
 
-        originalBoard = new ArrayList<>();
-        in.readList(originalBoard, (Integer.class.getClassLoader()));
-        solvedBoard = new ArrayList<>();
-        in.readList(solvedBoard, (Integer.class.getClassLoader()));
-        boardCells = new ArrayList<>();
-        in.readTypedList(boardCells, Cell.CREATOR);
+        givens = in.readString();
+        solution = in.readString();
+        values = in.readString();
+        notes = in.readString();
+        moves = in.readString();
+        moveCursor = in.readInt();
 
         isTakingNotes = in.readByte() != 0;
         isBoardSolved = in.readByte() != 0;
@@ -128,28 +132,88 @@ public class SudokuDataObject implements Parcelable {
         this.boardSize = boardSize;
     }
 
-    public List<Cell> getBoardCells() {
-        return boardCells;
+    public String getGivens() {
+        return givens;
     }
 
-    public void setBoardCells(List<Cell> cells) {
-        this.boardCells = cells;
+    public void setGivens(String givens) {
+        this.givens = givens;
     }
 
-    public List<Integer> getOriginalBoard() {
-        return originalBoard;
+    public String getSolution() {
+        return solution;
     }
 
-    public void setOriginalBoard(List<Integer> originalBoard) {
-        this.originalBoard = originalBoard;
+    public void setSolution(String solution) {
+        this.solution = solution;
+    }
+
+    public String getValues() {
+        return values;
+    }
+
+    public void setValues(String values) {
+        this.values = values;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public String getMoves() {
+        return moves;
     }
 
-    public List<Integer> getSolvedBoard() {
-        return solvedBoard;
+    public void setMoves(String moves) {
+        this.moves = moves;
+    }
+
+    public int getMoveCursor() {
+        return moveCursor;
+    }
+
+    public void setMoveCursor(int moveCursor) {
+        this.moveCursor = moveCursor;
+    }
+
+    // Saves made before the packed format stored the boards as lists - Firestore still calls these when loading them
+    public void setOriginalBoard(List<Integer> originalBoard) {
+        givens = Board.encodeDigits(toDigits(originalBoard));
     }
 
     public void setSolvedBoard(List<Integer> solvedBoard) {
-        this.solvedBoard = solvedBoard;
+        solution = Board.encodeDigits(toDigits(solvedBoard));
+    }
+
+    // Each cell was a map of row, col, value, isStartingCell and a list of notes
+    public void setBoardCells(List<Map<String, Object>> cells) {
+        int size = (int) Math.sqrt(cells.size());
+        byte[] cellValues = new byte[cells.size()];
+        int[] cellNotes = new int[cells.size()];
+        for (Map<String, Object> cell : cells) {
+            int index = ((Number) cell.get("row")).intValue() * size + ((Number) cell.get("col")).intValue();
+            cellValues[index] = (byte) ((Number) cell.get("value")).intValue();
+            Object cellNoteList = cell.get("notes");
+            if (cellNoteList instanceof List) {
+                for (Object note : (List<?>) cellNoteList) {
+                    cellNotes[index] |= 1 << (((Number) note).intValue() - 1);
+                }
+            }
+        }
+        values = Board.encodeDigits(cellValues);
+        notes = Board.encodeNotes(cellNotes, size);
+    }
+
+    private static byte[] toDigits(List<Integer> list) {
+        byte[] digits = new byte[list.size()];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = list.get(i).byteValue();
+        }
+        return digits;
     }
 
     public boolean isTakingNotes() {
@@ -214,9 +278,12 @@ public class SudokuDataObject implements Parcelable {
         parcel.writeInt(selectedRow);
         parcel.writeInt(selectedCol);
         parcel.writeInt(boardSize);
-        parcel.writeList(originalBoard);
-        parcel.writeList(solvedBoard);
-        parcel.writeTypedList(boardCells);
+        parcel.writeString(givens);
+        parcel.writeString(solution);
+        parcel.writeString(values);
+        parcel.writeString(notes);
+        parcel.writeString(moves);
+        parcel.writeInt(moveCursor);
         parcel.writeByte((byte) (isTakingNotes ? 1 : 0));
         parcel.writeByte((byte) (isBoardSolved ? 1 : 0));
         parcel.writeByte((byte) (solveButtonPressed ? 1 : 0));
@@ -0,0 +1,61 @@
+package fi.virri.game.sudoku.game;
+
+import androidx.annotation.NonNull;
+
+// Changes of a board since SudokuBoardView last drew it - SudokuGame marks them, the view drains them
+// postValue() keeps only the latest value, so marks accumulate here until drained instead of being separate events
+public class BoardChange {
+    public static final int CELLS = 1; // Values or notes of the marked cells changed
+    public static final int SELECTION = 2; // Selected cell moved
+    public static final int ALL = 4; // Every cell needs to be drawn again
+
+    public final Board board;
+    private final long[] cells; // Bit per cell index
+    private int flags = ALL; // A new board is drawn in full
+    private int selectedRow = -1;
+    private int selectedCol = -1;
+
+    public BoardChange(@NonNull Board board){
+        this.board = board;
+        cells = new long[(board.getCellCount() + 63) / 64];
+    }
+
+    // Value or notes of a cell changed
+    public synchronized void markCell(int index){
+        cells[index >>> 6] |= 1L << index;
+        flags |= CELLS;
+    }
+
+    // Every cell changed, e.g. after a reset or when the board is solved
+    public synchronized void markAll(){
+        flags |= ALL;
+    }
+
+    // Selection moved, -1 for no selection
+    public synchronized void select(int row, int col){
+        selectedRow = row;
+        selectedCol = col;
+        flags |= SELECTION;
+    }
+
+    public synchronized int getSelectedRow(){
+        return selectedRow;
+    }
+
+    public synchronized int getSelectedCol(){
+        return selectedCol;
+    }
+
+    // Add the marked cells and the cells whose conflict state flipped to the given bit set and clear the marks
+    // Return the flags of the drained changes, 0 if nothing changed
+    public synchronized int drainTo(@NonNull long[] dirtyCells){
+        for(int i=0; i<cells.length; i++){
+            dirtyCells[i] |= cells[i];
+            cells[i] = 0;
+        }
+        board.getConflicts().drainChangedTo(dirtyCells); // Flipped only by edits of marked cells
+        int result = flags;
+        flags = 0;
+        return result;
+    }
+}
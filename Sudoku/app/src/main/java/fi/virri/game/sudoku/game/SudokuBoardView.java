@@ -2,6 +2,7 @@ package fi.virri.game.sudoku.game;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -12,7 +13,7 @@ import android.view.View;
 
 import androidx.annotation.NonNull;
 
-import java.util.List;
+import java.util.Arrays;
 
 public class SudokuBoardView extends View {
     private final Paint thickLinePaint = new Paint(); // Paint to differentiate sub-grids
@@ -22,10 +23,11 @@ public class SudokuBoardView extends View {
     private final Paint startingCellPaint = new Paint(); // Paint for starting cells
     private final Paint emptyCellPaint = new Paint(); // Paint for empty cells (only needed to display images in saves correctly)
     private final Paint textPaint = new Paint(); // Paint for digits
+    private final Paint conflictTextPaint = new Paint(); // Paint for digits found twice in a row, column or sub-grid
     private final Paint noteTextPaint = new Paint(); // Paint for notes
 
-    private final int sqrtSize = 3; // Sub-grid row/column amount
-    private final int size = 9; // Board row/column amount
+    private int sqrtSize = 3; // Sub-grid row/column amount (derived from the board)
+    private int size = 9; // Board row/column amount (derived from the board)
 
     private float cellSizePixels = 0f; // Size of a cell in pixels (derived when board is drawn)
     private float noteSizePixels = 0f; // Size of a note in pixels (derived when board is drawn)
@@ -35,7 +37,13 @@ public class SudokuBoardView extends View {
 
     private SudokuBoardView.OnTouchListener listener;
 
-    private List<Cell> cells;
+    private Board board;
+    private Bitmap boardBitmap; // Cells as drawn in the last frame
+    private Canvas boardCanvas; // Draws into boardBitmap
+    private long[] dirtyCells = new long[0]; // Bit per cell to draw again in the next frame
+    private boolean isEverythingDirty = true;
+    private String[] digitStrings = digitStrings(9); // Text of each digit, indexed by digit
+    private final Rect textBounds = new Rect(); // Reused by drawText
 
     public SudokuBoardView(Context context, AttributeSet attributeSet) {
         super(context, attributeSet);
@@ -65,14 +73,44 @@ public class SudokuBoardView extends View {
 
         textPaint.setStyle(Paint.Style.FILL_AND_STROKE);
         textPaint.setColor(Color.BLACK);
+
+        conflictTextPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        conflictTextPaint.setColor(Color.parseColor("#d32f2f"));
     }
 
     // Draw the board - invalidate() calls this
+    // The cells are kept in a bitmap and only the cells changed since the last frame are drawn into it again.
+    // With hardware acceleration invalidate(Rect) no longer limits what onDraw draws, so the saving happens here.
     protected void onDraw(Canvas canvas) {
         updateMeasurements(getWidth());
-        fillCells(canvas);
-        drawLines(canvas);
-        drawText(canvas);
+        if(board == null){
+            drawLines(canvas);
+            return;
+        }
+        if(boardBitmap == null || boardBitmap.getWidth() != getWidth()){ // First frame or size changed
+            boardBitmap = Bitmap.createBitmap(getWidth(), getWidth(), Bitmap.Config.ARGB_8888);
+            boardCanvas = new Canvas(boardBitmap);
+            isEverythingDirty = true;
+        }
+        if(isEverythingDirty){
+            for (int i = 0; i < board.getCellCount(); i++) {
+                fillCell(boardCanvas, i);
+            }
+            drawLines(boardCanvas);
+            for (int i = 0; i < board.getCellCount(); i++) {
+                drawText(boardCanvas, i);
+            }
+        }
+        else{
+            for (int word = 0; word < dirtyCells.length; word++) {
+                for (long bits = dirtyCells[word]; bits != 0; bits &= bits - 1) {
+                    drawCell(boardCanvas, word * 64 + Long.numberOfTrailingZeros(bits));
+                }
+            }
+        }
+        isEverythingDirty = false;
+        Arrays.fill(dirtyCells, 0);
+        canvas.drawBitmap(boardBitmap, 0f, 0f, null);
     }
 
     // Update measurements of board components
@@ -81,42 +119,53 @@ public class SudokuBoardView extends View {
         noteSizePixels = cellSizePixels / (float) sqrtSize; // Notes form their own sub-grid in a cell
         this.getLayoutParams().height = (int) (size*cellSizePixels); // Adjust height of the board
         textPaint.setTextSize(cellSizePixels/1.5f);
+        conflictTextPaint.setTextSize(cellSizePixels/1.5f);
         noteTextPaint.setTextSize(cellSizePixels/(float) sqrtSize);
     }
 
-    // Fill all cells with correct paints
-    private void fillCells(Canvas canvas) {
-        if(cells == null){
-            return;
+    // Draw one cell again: its fill, the lines around it and its digit or notes
+    private void drawCell(@NonNull Canvas canvas, int index){
+        fillCell(canvas, index);
+        int row = index / size;
+        int col = index % size;
+        float left = col*cellSizePixels;
+        float top = row*cellSizePixels;
+        float right = (col+1)*cellSizePixels;
+        float bottom = (row+1)*cellSizePixels;
+        canvas.drawLine(left, top, left, bottom, col%sqrtSize == 0 ? thickLinePaint : thinLinePaint);
+        canvas.drawLine(right, top, right, bottom, (col+1)%sqrtSize == 0 ? thickLinePaint : thinLinePaint);
+        canvas.drawLine(left, top, right, top, row%sqrtSize == 0 ? thickLinePaint : thinLinePaint);
+        canvas.drawLine(left, bottom, right, bottom, (row+1)%sqrtSize == 0 ? thickLinePaint : thinLinePaint);
+        drawText(canvas, index);
+    }
+
+    // Fill a cell with the correct paint
+    private void fillCell(@NonNull Canvas canvas, int index) {
+        int row = index / size;
+        int col = index % size;
+        if(isBoardSolved){ // Board solved
+            fillCell(canvas, row, col, selectedCellPaint);
         }
-        for (int i = 0; i < cells.size(); i++) {
-            Cell cell = cells.get(i);
-            int row = cell.row;
-            int col = cell.col;
-            if(isBoardSolved){ // Board solved
-                fillCell(canvas, row, col, selectedCellPaint);
-            }
-            else if(cell.isStartingCell){ // Starting cell
-                fillCell(canvas, row, col, startingCellPaint);
-            }
-            else if(row == selectedRow && col == selectedCol){ // Selected cell
-                fillCell(canvas, row, col, selectedCellPaint);
-            }
-            else if(row == selectedRow || col == selectedCol){ // Conflicting cell in row/column
+        else if(board.isStartingCell(index)){ // Starting cell
+            fillCell(canvas, row, col, startingCellPaint);
+        }
+        else if(row == selectedRow && col == selectedCol){ // Selected cell
+            fillCell(canvas, row, col, selectedCellPaint);
+        }
+        else if(row == selectedRow || col == selectedCol){ // Conflicting cell in row/column
+            fillCell(canvas, row, col, conflictingCellPaint);
+        }
+        else if(row/sqrtSize == selectedRow/sqrtSize && col/sqrtSize == selectedCol/sqrtSize){ // Conflicting cell in sub-grid
+            if(selectedRow != -1 && selectedCol != -1){ // Selection exists
                 fillCell(canvas, row, col, conflictingCellPaint);
             }
-            else if(row/sqrtSize == selectedRow/sqrtSize && col/sqrtSize == selectedCol/sqrtSize){ // Conflicting cell in sub-grid
-                if(selectedRow != -1 && selectedCol != -1){ // Selection exists
-                    fillCell(canvas, row, col, conflictingCellPaint);
-                }
-                else{
-                    fillCell(canvas, row, col, emptyCellPaint);
-                }
-            }
             else{
-                fillCell(canvas, row, col, emptyCellPaint); // Empty cells - player can modify the digit/notes
+                fillCell(canvas, row, col, emptyCellPaint);
             }
         }
+        else{
+            fillCell(canvas, row, col, emptyCellPaint); // Empty cells - player can modify the digit/notes
+        }
     }
 
     // Fill a given cell with a given paint
@@ -142,42 +191,37 @@ public class SudokuBoardView extends View {
         }
     }
 
-    // Draw digits and notes
-    private void drawText(Canvas canvas){
-        if(cells == null){
-            return;
-        }
-        for (int i = 0; i < cells.size(); i++) {
-            Cell cell = cells.get(i);
-            int value = cell.value;
-            if(value == 0){ // Empty cell -> draw notes
-                for (Integer note : cell.notes) {
-                    int rowInCell = (note-1)/sqrtSize;
-                    int colInCell = (note-1)%sqrtSize;
-                    String valueStr = note.toString();
-
-                    Rect textBounds = new Rect();
-                    noteTextPaint.getTextBounds(valueStr, 0, valueStr.length(), textBounds);
-                    float textWidth = noteTextPaint.measureText(valueStr);
-                    float textHeight = textBounds.height();
-
-                    canvas.drawText(valueStr,
-                            (cell.col * cellSizePixels) + (colInCell * noteSizePixels) + noteSizePixels / 2 - textWidth / 2f,
-                            (cell.row * cellSizePixels) + (rowInCell * noteSizePixels) + noteSizePixels / 2 + textHeight / 2f,
-                            noteTextPaint);
-                }
-            }
-            else{ // Non-empty cell -> draw values
-                String valueStr = String.valueOf(value);
-                Rect textBounds = new Rect();
-                textPaint.getTextBounds(valueStr, 0, valueStr.length(), textBounds);
-                float textWidth = textPaint.measureText(valueStr);
+    // Draw the digit or the notes of a cell
+    private void drawText(Canvas canvas, int index){
+        Cell cell = board.getCell(index);
+        int value = cell.getValue();
+        if(value == 0){ // Empty cell -> draw notes
+            for (int mask = cell.getNoteMask(); mask != 0; mask &= mask - 1) { // Noted digits, lowest first
+                int note = Cell.lowestNote(mask);
+                int rowInCell = (note-1)/sqrtSize;
+                int colInCell = (note-1)%sqrtSize;
+                String valueStr = digitStrings[note];
+
+                noteTextPaint.getTextBounds(valueStr, 0, valueStr.length(), textBounds);
+                float textWidth = noteTextPaint.measureText(valueStr);
                 float textHeight = textBounds.height();
 
-                canvas.drawText(valueStr, (cell.col*cellSizePixels) + cellSizePixels/2 - textWidth/2,
-                        (cell.row*cellSizePixels) + cellSizePixels/2 + textHeight/2, textPaint);
+                canvas.drawText(valueStr,
+                        (cell.col * cellSizePixels) + (colInCell * noteSizePixels) + noteSizePixels / 2 - textWidth / 2f,
+                        (cell.row * cellSizePixels) + (rowInCell * noteSizePixels) + noteSizePixels / 2 + textHeight / 2f,
+                        noteTextPaint);
             }
         }
+        else{ // Non-empty cell -> draw values, in red if the digit conflicts
+            String valueStr = digitStrings[value];
+            Paint paint = board.getConflicts().isConflicting(index) ? conflictTextPaint : textPaint;
+            paint.getTextBounds(valueStr, 0, valueStr.length(), textBounds);
+            float textWidth = paint.measureText(valueStr);
+            float textHeight = textBounds.height();
+
+            canvas.drawText(valueStr, (cell.col*cellSizePixels) + cellSizePixels/2 - textWidth/2,
+                    (cell.row*cellSizePixels) + cellSizePixels/2 + textHeight/2, paint);
+        }
     }
 
     // Touch event handler
@@ -192,17 +236,49 @@ public class SudokuBoardView extends View {
         return false;
     }
 
-    // Selected cell changed -> Draw board
-    public void updateSelectedCellUI(int row, int col){
-        selectedRow = row;
-        selectedCol = col;
-        invalidate();
+    // Something in cells or the selection changed -> Draw the changed cells
+    public void applyChange(@NonNull BoardChange change){
+        if(change.board != board){ // New board
+            board = change.board;
+            if(board.size != size){ // Board size changed
+                size = board.size;
+                sqrtSize = (int) Math.sqrt(size);
+                digitStrings = digitStrings(size);
+            }
+            dirtyCells = new long[(board.getCellCount() + 63) / 64];
+            isEverythingDirty = true;
+        }
+        int flags = change.drainTo(dirtyCells);
+        if((flags & BoardChange.ALL) != 0){
+            isEverythingDirty = true;
+        }
+        if((flags & BoardChange.SELECTION) != 0){ // Highlight of the old and the new selection changes
+            markHouses(selectedRow, selectedCol);
+            selectedRow = change.getSelectedRow();
+            selectedCol = change.getSelectedCol();
+            markHouses(selectedRow, selectedCol);
+        }
+        if(flags != 0){
+            invalidate();
+        }
     }
 
-    // Something in cells changed -> Draw board
-    public void updateCells(List<Cell> cells){
-        this.cells = cells;
-        invalidate();
+    // Mark the row, column and sub-grid of a cell to be drawn again
+    private void markHouses(int row, int col){
+        if(row < 0 || col < 0 || row >= size || col >= size){ // No selection
+            return;
+        }
+        int boxRow = row - row%sqrtSize;
+        int boxCol = col - col%sqrtSize;
+        for(int i=0; i<size; i++){
+            markCell(row*size + i);
+            markCell(i*size + col);
+            markCell((boxRow + i/sqrtSize)*size + boxCol + i%sqrtSize);
+        }
+    }
+
+    private void markCell(int index){
+        dirtyCells[index >>> 6] |= 1L << index;
     }
 
     // Set board solved state
@@ -210,10 +286,20 @@ public class SudokuBoardView extends View {
         if(this.isBoardSolved == isBoardSolved){ // Win state not changed
             return;
         }
-        this.isBoardSolved = isBoardSolved; // Win state changed
+        this.isBoardSolved = isBoardSolved; // Win state changed - every cell changes color
+        isEverythingDirty = true;
         invalidate();
     }
 
+    @NonNull
+    private static String[] digitStrings(int size){
+        String[] result = new String[size + 1];
+        for(int digit=1; digit<=size; digit++){
+            result[digit] = String.valueOf(digit);
+        }
+        return result;
+    }
+
     // Register touch event listener
     public void registerListener(SudokuBoardView.OnTouchListener listener){
         this.listener = listener;
@@ -1,30 +1,26 @@
 package fi.virri.game.sudoku.game;
 
-import android.util.Pair;
-
 import androidx.annotation.NonNull;
 import androidx.lifecycle.MutableLiveData;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
 import fi.virri.game.sudoku.database.SudokuDataObject;
+import fi.virri.game.sudoku.generator.Hint;
 
 public class SudokuGame {
-    public final MutableLiveData<Pair<Integer, Integer>> selectedCellLiveData = new MutableLiveData<>();
-    public MutableLiveData<List<Cell>> cellsLiveData = new MutableLiveData<>();
+    public final MutableLiveData<BoardChange> boardChangeLiveData = new MutableLiveData<>(); // Cells to draw again
     public MutableLiveData<Boolean> isBoardSolvedLiveData = new MutableLiveData<>(false);
     public MutableLiveData<Boolean> isTakingNotesLiveData = new MutableLiveData<>(false);
-    public MutableLiveData<List<Integer>> highlightedKeysLiveData = new MutableLiveData<>();
+    public MutableLiveData<Integer> highlightedKeysLiveData = new MutableLiveData<>(0); // Note mask of the selected cell
+    public MutableLiveData<Hint> hintLiveData = new MutableLiveData<>();
 
     private int selectedRow = -1;
     private int selectedCol = -1;
-    private Board board = null;
-    private int[][] originalBoard;
-    private int[][] solvedBoard;
+    private Board board = null; // Starting digits, solution, current digits and notes
+    private BoardChange change = null; // Changes of the board not drawn yet
+    private MoveLog moveLog = new MoveLog(); // Value and note edits for undo/redo
     private boolean isTakingNotes = false;
     private boolean isBoardSolved = false;
+    private HintEngine hintEngine = null; // Follows every entered and erased digit
 
     // Digit button pressed - handle input
     public void handleInput(int number){
@@ -32,25 +28,20 @@ public class SudokuGame {
             return;
         }
         Cell cell = board.getCell(selectedRow, selectedCol);
-        if(cell.isStartingCell){ // Should not be possible but just to be safe
+        if(cell.isStartingCell()){ // Should not be possible but just to be safe
             return;
         }
-        if(isTakingNotes){ // Update notes
-            if(cell.notes.contains(number)){ // Notes include the number - remove it
-                for (int i = cell.notes.size()-1; i >= 0; i--) {
-                    if(cell.notes.get(i) == number){
-                        cell.notes.remove(i);
-                    }
-                }
-            }
-            else{ // Notes do not include the number - add it
-                cell.notes.add(number);
-            }
-            highlightedKeysLiveData.postValue(cell.notes);
-            cellsLiveData.postValue(board.cells);
+        if(isTakingNotes){ // Update notes - add the number if missing, otherwise remove it
+            cell.toggleNote(number);
+            moveLog.record(MoveLog.noteMove(selectedRow * board.size + selectedCol, number));
+            highlightedKeysLiveData.postValue(cell.getNoteMask());
+            postSelectedCellChange();
         }
-        else{ // Update value
-            cell.value = number;
+        else if(cell.getValue() != number){ // Update value
+            moveLog.record(MoveLog.valueMove(selectedRow * board.size + selectedCol, cell.getValue(), number));
+            cell.setValue(number);
+            hintEngine.update(selectedRow, selectedCol);
+            postSelectedCellChange();
             checkWinState();
         }
     }
@@ -61,23 +52,25 @@ public class SudokuGame {
             return;
         }
         Cell cell = board.getCell(selectedRow, selectedCol);
-        if(cell.value == 0){ // Empty cell
+        if(cell.getValue() == 0){ // Empty cell
             return;
         }
-        cell.value = 0;
-        cellsLiveData.postValue(board.cells);
+        moveLog.record(MoveLog.valueMove(selectedRow * board.size + selectedCol, cell.getValue(), 0));
+        cell.setValue(0);
+        hintEngine.update(selectedRow, selectedCol);
+        postSelectedCellChange();
     }
 
     // Cell was touched - update selected cell
     public void updateSelectedCell(int row, int col){
         Cell cell = board.getCell(row, col);
-        if(!cell.isStartingCell){
+        if(!cell.isStartingCell()){
             selectedRow = row;
             selectedCol = col;
-            selectedCellLiveData.postValue(Pair.create(row, col));
+            postSelection();
             if(isTakingNotes){
                 if(selectedRow != -1 && selectedCol != -1){
-                    highlightedKeysLiveData.postValue(cell.notes);
+                    highlightedKeysLiveData.postValue(cell.getNoteMask());
                 }
             }
         }
@@ -87,12 +80,9 @@ public class SudokuGame {
     public void changeNoteTakingState(){
         isTakingNotes = !isTakingNotes;
         isTakingNotesLiveData.postValue(isTakingNotes); // Change notes button image
-        List<Integer> currentNotes;
+        int currentNotes = 0;
         if(isTakingNotes && selectedRow != -1 && selectedCol != -1){
-            currentNotes = board.getCell(selectedRow, selectedCol).notes;
-        }
-        else{
-            currentNotes = new ArrayList<>();
+            currentNotes = board.getCell(selectedRow, selectedCol).getNoteMask();
         }
         highlightedKeysLiveData.postValue(currentNotes); // Update highlighted keys
     }
@@ -101,62 +91,70 @@ public class SudokuGame {
     public void loadSaveState(@NonNull SudokuDataObject saveState){
         selectedRow = saveState.getSelectedRow(); // Selected cell
         selectedCol = saveState.getSelectedCol(); // Selected cell
-        originalBoard = listTo2DArray(saveState.getOriginalBoard()); // Original board
-        solvedBoard = listTo2DArray(saveState.getSolvedBoard()); // Solved board
         isTakingNotes = saveState.isTakingNotes(); // Note taking state
-        isBoardSolved = saveState.isBoardSolved(); // Board solved state
-        List<Cell> cells = saveState.getBoardCells(); // Cells
-        this.board = new Board(saveState.getBoardSize(), cells); // Board
-        checkWinState();
+        isBoardSolved = false; // Derived from the board by checkWinState()
+        this.board = Board.decode(saveState.getBoardSize(), saveState.getGivens(), saveState.getSolution(),
+                saveState.getValues(), saveState.getNotes()); // Board
+        if(saveState.getMoves() != null){ // Saves made before undo/redo have no moves
+            moveLog = MoveLog.decode(saveState.getMoves(), saveState.getMoveCursor()); // Undo/redo history
+        }
+        else{
+            moveLog = new MoveLog();
+        }
+        resetHintEngine();
+        change = new BoardChange(board); // Drawn in full
+        checkWinState(); // Posts the solved state of a solved save
+        postSelection();
         isTakingNotesLiveData.postValue(isTakingNotes);
         if(selectedRow != -1 && selectedCol != -1){ // Selection exists
-            highlightedKeysLiveData.postValue(board.getCell(selectedRow, selectedCol).notes);
+            highlightedKeysLiveData.postValue(board.getCell(selectedRow, selectedCol).getNoteMask());
         }
     }
 
     // New game - initialize the board with the given board, store solved board
     public void initializeBoard(@NonNull int[][] board, int[][] solvedBoard){
-        originalBoard = board;
-        this.solvedBoard = solvedBoard;
-        this.board = new Board(board.length, board);
-        selectedCellLiveData.postValue(Pair.create(selectedRow, selectedCol)); // No selection
-        cellsLiveData.postValue(this.board.cells);
+        this.board = Board.fromPuzzle(board, solvedBoard);
+        change = new BoardChange(this.board); // Drawn in full
+        moveLog = new MoveLog();
+        resetHintEngine();
+        postSelection(); // No selection
     }
 
-    // Check if board is solved
+    // Check if board is solved - the board counts its mismatching cells, so this is O(1) per edit
+    // Posts only when the solved state changes
     public void checkWinState(){
-        if(board == null || solvedBoard == null){
+        if(board == null){
             return;
         }
-        if(Arrays.deepEquals(board.getAs2DArray(), solvedBoard)){ // Board is solved
+        boolean isSolved = board.isSolved();
+        if(isSolved == isBoardSolved){ // Solved state not changed
+            return;
+        }
+        isBoardSolved = isSolved;
+        if(isSolved){ // Board is solved
             selectedRow = -1; // Reset selection
             selectedCol = -1; // Reset selection
-            selectedCellLiveData.postValue(Pair.create(selectedRow, selectedCol));
             board.setImmutableDigits(); // Disable board interactivity
-            cellsLiveData.postValue(board.cells);
-            isBoardSolved = true; // Board is solved
-            isBoardSolvedLiveData.postValue(true);
-        }
-        else{ // Board is not solved
-            selectedCellLiveData.postValue(Pair.create(selectedRow, selectedCol));
-            cellsLiveData.postValue(board.cells);
-            isBoardSolved = false;
-            isBoardSolvedLiveData.postValue(false);
+            change.markAll();
+            postSelection();
         }
+        isBoardSolvedLiveData.postValue(isSolved);
     }
 
     // Reset button pressed - reset board
     public void resetBoard(){
         selectedRow = -1; // Reset selection
         selectedCol = -1; // Reset selection
-        selectedCellLiveData.postValue(Pair.create(selectedRow, selectedCol));
-        board.cells = new Board(originalBoard.length, originalBoard).cells; // Reset cells
-        cellsLiveData.postValue(this.board.cells);
+        board.reset(); // Starting digits, no notes
+        moveLog.clear(); // Nothing to undo
+        resetHintEngine();
+        change.markAll();
+        postSelection();
         isBoardSolved = false; // Board not solved
         isBoardSolvedLiveData.postValue(false);
         isTakingNotes = false; // Not taking notes
         isTakingNotesLiveData.postValue(false);
-        highlightedKeysLiveData.postValue(new ArrayList<>()); // No highlighted keys
+        highlightedKeysLiveData.postValue(0); // No highlighted keys
     }
 
     // Solve board button pressed - solve board
@@ -166,9 +164,13 @@ public class SudokuGame {
                 return;
             }
             isTakingNotesLiveData.postValue(false);
-            highlightedKeysLiveData.postValue(new ArrayList<>());
+            highlightedKeysLiveData.postValue(0);
         }
-        this.board = new Board(solvedBoard.length, solvedBoard);
+        board.fillSolution();
+        moveLog.clear(); // Solved board can not be edited
+        resetHintEngine();
+        change.markAll();
+        boardChangeLiveData.postValue(change);
         checkWinState();
     }
 
@@ -178,37 +180,78 @@ public class SudokuGame {
             return;
         }
         Cell cell = board.getCell(selectedRow, selectedCol);
-        int value = solvedBoard[selectedRow][selectedCol];
-        if(cell.value != value){
-            cell.value = value;
+        int value = board.getSolution(selectedRow * board.size + selectedCol);
+        if(cell.getValue() != value){
+            moveLog.record(MoveLog.valueMove(selectedRow * board.size + selectedCol, cell.getValue(), value));
+            cell.setValue(value);
+            hintEngine.update(selectedRow, selectedCol);
+            postSelectedCellChange();
             checkWinState();
         }
     }
 
-    // When saving game must convert boards (2D arrays) to lists because of Parcelable
-    @NonNull
-    private List<Integer> array2DToList(@NonNull int[][] board){
-        int len = board.length;
-        List<Integer> list = new ArrayList<>(len*len);
-        for (int[] ints : board){
-            for (int j = 0; j < len; j++){
-                list.add(ints[j]);
-            }
+    // Undo button pressed - revert the latest value or note edit
+    public void undo(){
+        if(board == null || isBoardSolved || !moveLog.canUndo()){
+            return;
         }
-        return list;
+        int move = moveLog.undo();
+        applyMove(move, MoveLog.getOldValue(move));
     }
 
-    // When loading game must convert boards (lists) to 2D arrays because of Parcelable
-    @NonNull
-    private int[][] listTo2DArray(@NonNull List<Integer> list){
-        int len = (int) Math.sqrt(list.size());
-        int[][] board = new int[len][len];
-        for (int i = 0; i < len; i++) {
-            for (int j = 0; j < len; j++) {
-                board[i][j] = list.get(len*i+j);
+    // Redo button pressed - apply the latest undone edit again
+    public void redo(){
+        if(board == null || isBoardSolved || !moveLog.canRedo()){
+            return;
+        }
+        int move = moveLog.redo();
+        applyMove(move, MoveLog.getNewValue(move));
+    }
+
+    // Set the value of the cell of a move, or toggle its note - a note toggle undoes itself
+    private void applyMove(int move, int value){
+        int index = MoveLog.getCell(move);
+        if(MoveLog.isNoteMove(move)){
+            board.toggleNote(index, MoveLog.getNewValue(move));
+            if(isTakingNotes && index == selectedRow * board.size + selectedCol){ // Keys show the notes of the cell
+                highlightedKeysLiveData.postValue(board.getNoteMask(index));
             }
         }
-        return board;
+        else{
+            board.setValue(index, value);
+            hintEngine.update(index / board.size, index % board.size);
+        }
+        change.markCell(index);
+        boardChangeLiveData.postValue(change);
+        checkWinState();
+    }
+
+    // Hint button pressed - find the next logical step or the first wrong digit
+    // Posts null if the board is solved or needs more than the known techniques
+    public Hint requestHint(){
+        Hint hint = null;
+        if(hintEngine != null && !isBoardSolved){
+            hint = hintEngine.nextHint();
+        }
+        hintLiveData.postValue(hint);
+        return hint;
+    }
+
+    // Value or notes of the selected cell changed - only that cell is drawn again
+    private void postSelectedCellChange(){
+        change.markCell(selectedRow * board.size + selectedCol);
+        boardChangeLiveData.postValue(change);
+    }
+
+    // Selection changed - the view draws the row, column and sub-grid of the old and the new selection again
+    private void postSelection(){
+        change.select(selectedRow, selectedCol);
+        boardChangeLiveData.postValue(change);
+    }
+
+    // Build the hint state from the current cells
+    private void resetHintEngine(){
+        hintEngine = new HintEngine(board);
     }
 
     public int getSelectedRow() {
@@ -223,12 +266,8 @@ public class SudokuGame {
         return board;
     }
 
-    public List<Integer> getOriginalBoard() {
-        return array2DToList(originalBoard);
-    }
-
-    public List<Integer> getSolvedBoard() {
-        return array2DToList(solvedBoard);
+    public MoveLog getMoveLog() {
+        return moveLog;
     }
 
     public boolean getIsTakingNotes() {
@@ -0,0 +1,60 @@
+package fi.virri.game.sudoku.batch;
+
+import java.io.File;
+import java.util.Arrays;
+
+// Command line entry point of the puzzle bank tools
+// Generate: --count=N (puzzles per difficulty), --out=DIR, --fill-workers=N, --dig-workers=N, --grade-workers=N,
+// --queue=N (jobs between stages), --seed=N, --report-ms=N
+// Solve a puzzle file: solve --in=FILE --out=FILE [--workers=N] [--max-nodes=N] [--max-ms=N] (limits per puzzle)
+public class BatchGenerator {
+    public static void main(String[] args) throws Exception {
+        try {
+            if (args.length > 0 && args[0].equals("solve")) {
+                solve(Arrays.copyOfRange(args, 1, args.length));
+            }
+            else {
+                new BatchPipeline(BatchOptions.parse(args), System.out).run();
+            }
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void solve(String[] args) throws Exception {
+        File input = null;
+        File output = null;
+        int workers = Runtime.getRuntime().availableProcessors();
+        long maxNodes = 0;
+        long maxMillis = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--in=")) {
+                input = new File(arg.substring(5));
+            }
+            else if (arg.startsWith("--out=")) {
+                output = new File(arg.substring(6));
+            }
+            else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(arg.substring(10));
+            }
+            else if (arg.startsWith("--max-nodes=")) {
+                maxNodes = Long.parseLong(arg.substring(12));
+            }
+            else if (arg.startsWith("--max-ms=")) {
+                maxMillis = Long.parseLong(arg.substring(9));
+            }
+            else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (input == null || output == null) {
+            throw new IllegalArgumentException("Expected --in=FILE and --out=FILE");
+        }
+        BulkSolver solver = new BulkSolver(workers);
+        solver.setMaxNodes(maxNodes);
+        solver.setMaxMillis(maxMillis);
+        System.out.println(solver.solve(input, output));
+    }
+}
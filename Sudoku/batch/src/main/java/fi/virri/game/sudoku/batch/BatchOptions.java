@@ -0,0 +1,131 @@
+package fi.virri.game.sudoku.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+// Options of a BatchPipeline run, parsed from --name=value arguments
+public class BatchOptions {
+    private int count = 1000; // Puzzles written per difficulty
+    private File outputDirectory = new File("puzzle-bank");
+    private int fillWorkers = 1;
+    private int digWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() - 2); // Digging dominates the cost
+    private int gradeWorkers = 1;
+    private int queueCapacity = 256; // Jobs waiting between two stages
+    private long seed = System.nanoTime(); // First grid seed, the following grids count up from it
+    private long reportMillis = 5000; // Progress report interval
+
+    @NotNull
+    public static BatchOptions parse(@NotNull String[] args) {
+        BatchOptions options = new BatchOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator == -1) {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "count":
+                    options.setCount(Integer.parseInt(value));
+                    break;
+                case "out":
+                    options.setOutputDirectory(new File(value));
+                    break;
+                case "fill-workers":
+                    options.setFillWorkers(Integer.parseInt(value));
+                    break;
+                case "dig-workers":
+                    options.setDigWorkers(Integer.parseInt(value));
+                    break;
+                case "grade-workers":
+                    options.setGradeWorkers(Integer.parseInt(value));
+                    break;
+                case "queue":
+                    options.setQueueCapacity(Integer.parseInt(value));
+                    break;
+                case "seed":
+                    options.setSeed(Long.parseLong(value));
+                    break;
+                case "report-ms":
+                    options.setReportMillis(Long.parseLong(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        return options;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = positive(count);
+    }
+
+    @NotNull
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(@NotNull File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    public int getFillWorkers() {
+        return fillWorkers;
+    }
+
+    public void setFillWorkers(int fillWorkers) {
+        this.fillWorkers = positive(fillWorkers);
+    }
+
+    public int getDigWorkers() {
+        return digWorkers;
+    }
+
+    public void setDigWorkers(int digWorkers) {
+        this.digWorkers = positive(digWorkers);
+    }
+
+    public int getGradeWorkers() {
+        return gradeWorkers;
+    }
+
+    public void setGradeWorkers(int gradeWorkers) {
+        this.gradeWorkers = positive(gradeWorkers);
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = positive(queueCapacity);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getReportMillis() {
+        return reportMillis;
+    }
+
+    public void setReportMillis(long reportMillis) {
+        this.reportMillis = reportMillis;
+    }
+
+    private static int positive(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Expected a positive value: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,352 @@
+package fi.virri.game.sudoku.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fi.virri.game.sudoku.generator.CancellationToken;
+import fi.virri.game.sudoku.generator.Canonicalizer;
+import fi.virri.game.sudoku.generator.GenerationStats;
+import fi.virri.game.sudoku.generator.GeneratorSettings;
+import fi.virri.game.sudoku.generator.Grade;
+import fi.virri.game.sudoku.generator.Grader;
+import fi.virri.game.sudoku.generator.LongHashSet;
+import fi.virri.game.sudoku.generator.PuzzlePool;
+import fi.virri.game.sudoku.generator.Sudoku;
+
+// Staged generation of puzzle banks: fill grid -> dig -> grade -> bucket
+// The grade stage also hashes the canonical form of each puzzle, and the bucket stage drops puzzles equivalent to
+// one already written.
+// Stages are connected by bounded queues, so a slow stage blocks the stages before it instead of piling up jobs.
+// Fill, dig and grade run on their own worker threads, the bucket stage writes the files on the calling thread.
+// Each difficulty goes to puzzles-N.txt, one line per puzzle: 81 digits ('0' for empty), a space and the hex puzzle ID.
+public class BatchPipeline {
+    private static final int DIMENSION = 9;
+    private static final long POLL_MILLIS = 100; // How often blocked workers check for the end of the run
+
+    private final BatchOptions options;
+    private final PrintStream log;
+    private final GeneratorSettings[] settings = new GeneratorSettings[PuzzlePool.HARD + 1]; // Indexed by difficulty
+    private final BlockingQueue<Job> filled;
+    private final BlockingQueue<Job> dug;
+    private final BlockingQueue<Job> graded;
+    private final CancellationToken token = new CancellationToken(); // Cancelled once every bucket is full
+    private final AtomicLong nextSeed;
+    private final AtomicInteger nextDifficulty = new AtomicInteger();
+    private final AtomicIntegerArray written = new AtomicIntegerArray(PuzzlePool.HARD + 1);
+
+    // Stage counters
+    private final AtomicLong fillCount = new AtomicLong();
+    private final AtomicLong digCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong(); // Boards that fell short of the target and were dropped
+    private final AtomicLong gradeCount = new AtomicLong();
+    private final AtomicLong mismatchCount = new AtomicLong(); // Graded tier below the difficulty - dropped
+    private final AtomicLong duplicateCount = new AtomicLong(); // Equivalent to a written puzzle - dropped
+    private final GenerationStats generationStats = new GenerationStats(); // Fill and dig cost of the written puzzles
+
+    // Fill to write latency of the puzzles written since the last report
+    private final AtomicLong latencySum = new AtomicLong();
+    private final AtomicLong latencyCount = new AtomicLong();
+    private final AtomicLong latencyMax = new AtomicLong();
+
+    // A board on its way through the stages
+    private static class Job {
+        final int difficulty;
+        final long startNanos;
+        final Sudoku sudoku;
+        Grade grade;
+        long hash; // Hash of the canonical form
+
+        Job(int difficulty, long startNanos, @NotNull Sudoku sudoku) {
+            this.difficulty = difficulty;
+            this.startNanos = startNanos;
+            this.sudoku = sudoku;
+        }
+    }
+
+    public BatchPipeline(@NotNull BatchOptions options, @NotNull PrintStream log) {
+        this.options = options;
+        this.log = log;
+        filled = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        dug = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        graded = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        nextSeed = new AtomicLong(options.getSeed());
+        for (int difficulty = PuzzlePool.EASY; difficulty <= PuzzlePool.HARD; difficulty++) {
+            settings[difficulty] = PuzzlePool.settings(difficulty);
+        }
+    }
+
+    // Run until every difficulty has the requested amount of puzzles
+    public void run() throws IOException, InterruptedException {
+        File directory = options.getOutputDirectory();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can not create " + directory);
+        }
+        int workerCount = options.getFillWorkers() + options.getDigWorkers() + options.getGradeWorkers();
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "BatchPipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BatchReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startNanos = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < options.getFillWorkers(); i++) {
+                futures.add(workers.submit(this::fillStage));
+            }
+            for (int i = 0; i < options.getDigWorkers(); i++) {
+                futures.add(workers.submit(this::digStage));
+            }
+            for (int i = 0; i < options.getGradeWorkers(); i++) {
+                futures.add(workers.submit(this::gradeStage));
+            }
+            long[] lastWritten = {0};
+            long[] lastNanos = {startNanos};
+            reporter.scheduleAtFixedRate(() -> report(lastWritten, lastNanos),
+                    options.getReportMillis(), options.getReportMillis(), TimeUnit.MILLISECONDS);
+
+            bucketStage(futures);
+        }
+        finally {
+            token.cancel();
+            reporter.shutdownNow();
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        for (Future<?> future : futures) { // Surface a failed worker
+            try {
+                future.get();
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("Pipeline stage failed", e.getCause());
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        log.println("Done: " + totalWritten() + " puzzles in " + elapsedMillis + " ms, "
+                + fillCount.get() + " grids filled, " + rejectedCount.get() + " rejected by digging, "
+                + mismatchCount.get() + " rejected by grading, " + duplicateCount.get() + " duplicates");
+        log.println(generationStats);
+    }
+
+    // Fill stage: a solution grid for the next difficulty that still needs puzzles
+    private void fillStage() {
+        while (!token.isCancelled()) {
+            int difficulty = nextOpenDifficulty();
+            if (difficulty == -1) {
+                return;
+            }
+            Sudoku sudoku = Sudoku.filled(DIMENSION, PuzzlePool.digitsToRemove(difficulty), settings[difficulty],
+                    nextSeed.getAndIncrement());
+            fillCount.incrementAndGet();
+            if (!put(filled, new Job(difficulty, System.nanoTime(), sudoku))) {
+                return;
+            }
+        }
+    }
+
+    // Dig stage: remove digits, dropping boards that do not reach the empty cell count or the tier
+    private void digStage() {
+        Job job;
+        while ((job = take(filled)) != null) {
+            try {
+                if (!job.sudoku.dig(token)) {
+                    rejectedCount.incrementAndGet();
+                    continue;
+                }
+            }
+            catch (CancellationException e) {
+                return;
+            }
+            digCount.incrementAndGet();
+            if (!put(dug, job)) {
+                return;
+            }
+        }
+    }
+
+    // Grade stage: full grade of each puzzle, which must reach the tier the digging aimed for
+    private void gradeStage() {
+        Grader grader = new Grader(DIMENSION);
+        Canonicalizer canonicalizer = new Canonicalizer();
+        Job job;
+        while ((job = take(dug)) != null) {
+            job.grade = grader.grade(job.sudoku.board);
+            gradeCount.incrementAndGet();
+            if (job.grade.getTier() < job.difficulty) {
+                mismatchCount.incrementAndGet();
+                continue;
+            }
+            job.hash = canonicalizer.hash(job.sudoku.board);
+            if (!put(graded, job)) {
+                return;
+            }
+        }
+    }
+
+    // Bucket stage: append each puzzle to the file of its difficulty until every file is full
+    private void bucketStage(@NotNull List<Future<?>> futures) throws IOException, InterruptedException {
+        Writer[] writers = new Writer[PuzzlePool.HARD + 1];
+        long expectedCount = (long) options.getCount() * PuzzlePool.HARD;
+        LongHashSet writtenHashes = new LongHashSet((int) Math.min(1 << 24, expectedCount)); // Grows past that
+        try {
+            for (int difficulty = PuzzlePool.EASY; difficulty <= PuzzlePool.HARD; difficulty++) {
+                File file = new File(options.getOutputDirectory(), "puzzles-" + difficulty + ".txt");
+                writers[difficulty] = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                        StandardCharsets.US_ASCII), 1 << 16);
+            }
+            StringBuilder line = new StringBuilder(DIMENSION * DIMENSION + 18);
+            while (nextOpenDifficulty() != -1) {
+                Job job = graded.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (job == null) {
+                    if (isAnyStageFailed(futures)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (written.get(job.difficulty) >= options.getCount()) { // Bucket filled meanwhile
+                    continue;
+                }
+                if (!writtenHashes.add(job.hash)) {
+                    duplicateCount.incrementAndGet();
+                    continue;
+                }
+                line.setLength(0);
+                for (int[] row : job.sudoku.board) {
+                    for (int value : row) {
+                        line.append((char) ('0' + value));
+                    }
+                }
+                line.append(' ').append(Long.toHexString(job.sudoku.getPuzzleId())).append('\n');
+                writers[job.difficulty].append(line);
+                written.incrementAndGet(job.difficulty);
+                generationStats.record(job.difficulty, job.sudoku.getReport());
+
+                long latency = System.nanoTime() - job.startNanos;
+                latencySum.addAndGet(latency);
+                latencyCount.incrementAndGet();
+                latencyMax.accumulateAndGet(latency, Math::max);
+            }
+        }
+        finally {
+            for (Writer writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+    }
+
+    // Difficulty of the next grid, rotating over the difficulties whose files are not full yet
+    // Return -1 once every file is full
+    private int nextOpenDifficulty() {
+        for (int i = 0; i < PuzzlePool.HARD; i++) {
+            int difficulty = PuzzlePool.EASY + Math.floorMod(nextDifficulty.getAndIncrement(), PuzzlePool.HARD);
+            if (written.get(difficulty) < options.getCount()) {
+                return difficulty;
+            }
+        }
+        return -1;
+    }
+
+    // Queue a job, waiting while the next stage is behind
+    // Return false if the run ended meanwhile
+    private boolean put(@NotNull BlockingQueue<Job> queue, @NotNull Job job) {
+        try {
+            while (!queue.offer(job, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (token.isCancelled()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Next job of a stage, null once the run has ended
+    private Job take(@NotNull BlockingQueue<Job> queue) {
+        try {
+            while (!token.isCancelled()) {
+                Job job = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (job != null) {
+                    return job;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private boolean isAnyStageFailed(@NotNull List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (future.isDone()) {
+                try {
+                    future.get();
+                }
+                catch (ExecutionException | InterruptedException e) {
+                    return true;
+                }
+                catch (CancellationException ignored) {
+                    // Not started before the end of the run
+                }
+            }
+        }
+        return false;
+    }
+
+    private long totalWritten() {
+        long total = 0;
+        for (int difficulty = PuzzlePool.EASY; difficulty <= PuzzlePool.HARD; difficulty++) {
+            total += written.get(difficulty);
+        }
+        return total;
+    }
+
+    // Throughput since the last report, queue depths and fill to write latency
+    private void report(@NotNull long[] lastWritten, @NotNull long[] lastNanos) {
+        long now = System.nanoTime();
+        long total = totalWritten();
+        double seconds = (now - lastNanos[0]) / 1e9;
+        long count = latencyCount.getAndSet(0);
+        long sum = latencySum.getAndSet(0);
+        long max = latencyMax.getAndSet(0);
+        log.printf("written %d/%d/%d, %.0f puzzles/s, filled %d, dug %d, rejected %d, graded %d, "
+                        + "queues %d/%d/%d, latency avg %.1f ms max %.1f ms%n",
+                written.get(PuzzlePool.EASY), written.get(PuzzlePool.MEDIUM), written.get(PuzzlePool.HARD),
+                (total - lastWritten[0]) / seconds, fillCount.get(), digCount.get(), rejectedCount.get(),
+                gradeCount.get(), filled.size(), dug.size(), graded.size(),
+                count == 0 ? 0 : sum / 1e6 / count, max / 1e6);
+        lastWritten[0] = total;
+        lastNanos[0] = now;
+    }
+}
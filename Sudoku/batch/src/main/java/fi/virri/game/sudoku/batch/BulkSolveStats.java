@@ -0,0 +1,101 @@
+package fi.virri.game.sudoku.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+import fi.virri.game.sudoku.generator.Histogram;
+import fi.virri.game.sudoku.generator.SolveResult;
+
+// Totals of a BulkSolver run
+public class BulkSolveStats {
+    private long unique = 0;
+    private long multiple = 0; // More than one solution
+    private long unsolvable = 0; // No solution or conflicting givens
+    private long gaveUp = 0; // Solve limits ran out
+    private long invalid = 0; // Lines that are not 81 digits, '.' or '0'
+    private long elapsedNanos = 0;
+    private final Histogram solveTimes = new Histogram(); // Solve time of each well-formed puzzle
+
+    void add(@NotNull BulkSolveStats other) {
+        unique += other.unique;
+        multiple += other.multiple;
+        unsolvable += other.unsolvable;
+        gaveUp += other.gaveUp;
+        invalid += other.invalid;
+        solveTimes.add(other.solveTimes);
+    }
+
+    void recordSolve(@NotNull SolveResult result, long nanos) {
+        switch (result) {
+            case UNIQUE:
+                unique++;
+                break;
+            case MULTIPLE:
+                multiple++;
+                break;
+            case UNSOLVABLE:
+                unsolvable++;
+                break;
+            default:
+                gaveUp++;
+                break;
+        }
+        solveTimes.record(nanos);
+    }
+
+    void recordInvalid() {
+        invalid++;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getPuzzleCount() {
+        return unique + multiple + unsolvable + gaveUp + invalid;
+    }
+
+    public long getUniqueCount() {
+        return unique;
+    }
+
+    public long getMultipleCount() {
+        return multiple;
+    }
+
+    public long getUnsolvableCount() {
+        return unsolvable;
+    }
+
+    public long getGaveUpCount() {
+        return gaveUp;
+    }
+
+    public long getInvalidCount() {
+        return invalid;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getPuzzlesPerSecond() {
+        return elapsedNanos == 0 ? 0 : getPuzzleCount() * 1e9 / elapsedNanos;
+    }
+
+    @NotNull
+    public Histogram getSolveTimes() {
+        return solveTimes;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d puzzles in %.1f ms, %.0f puzzles/s, solve p50 %.1f us p99 %.1f us "
+                        + "max %.1f us, unique %d, multiple solutions %d, unsolvable %d, gave up %d, invalid %d",
+                getPuzzleCount(), elapsedNanos / 1e6, getPuzzlesPerSecond(), solveTimes.percentile(0.5) / 1e3,
+                solveTimes.percentile(0.99) / 1e3, solveTimes.getMax() / 1e3, unique, multiple, unsolvable,
+                gaveUp, invalid);
+    }
+}
@@ -0,0 +1,246 @@
+package fi.virri.game.sudoku.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import fi.virri.game.sudoku.generator.CancellationToken;
+import fi.virri.game.sudoku.generator.SolveResult;
+import fi.virri.game.sudoku.generator.SudokuSolver;
+
+// Solve and check uniqueness of every puzzle in a file of 81 character lines ('.' or '0' for empty cells)
+// The input is memory mapped and split into chunks that are solved on a thread pool, the chunk results
+// are written in input order. Output has one line per puzzle line:
+//   <solution>              unique solution
+//   <solution> multiple     first of several solutions
+//   <puzzle> unsolvable     no solution or conflicting givens
+//   <puzzle> gave-up        node or time limit per puzzle ran out, or the run was cancelled
+//   invalid                 not a 9x9 puzzle
+// Blank lines and lines starting with '#' are skipped. Anything after the 81st character must be separated by
+// whitespace, so puzzle bank files with a trailing ID are accepted.
+public class BulkSolver {
+    private static final int DIMENSION = 9;
+    private static final int CELL_COUNT = DIMENSION * DIMENSION;
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 20; // About 12 000 puzzles
+    private static final int CHUNKS_PER_WORKER = 4; // Solved chunks waiting to be written, bounds the memory use
+    private static final byte[] MULTIPLE = " multiple\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNSOLVABLE = " unsolvable\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GAVE_UP = " gave-up\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INVALID = "invalid\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final int workerCount;
+    private final int chunkBytes;
+    private long maxNodes = 0; // Search nodes per puzzle, 0 for no limit
+    private long maxMillis = 0; // Solve time per puzzle, 0 for no limit
+    private final CancellationToken token = new CancellationToken();
+
+    public BulkSolver(int workerCount) {
+        this(workerCount, DEFAULT_CHUNK_BYTES);
+    }
+
+    // Chunk size is configurable for the tests
+    BulkSolver(int workerCount, int chunkBytes) {
+        if (workerCount < 1 || chunkBytes < 1) {
+            throw new IllegalArgumentException("Expected positive worker count and chunk size");
+        }
+        this.workerCount = workerCount;
+        this.chunkBytes = chunkBytes;
+    }
+
+    // Limit the search of each puzzle, so a pathological puzzle gives up instead of stalling its worker
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    public void setMaxMillis(long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    // Give up the puzzles not solved yet - safe to call from any thread
+    public void cancel() {
+        token.cancel();
+    }
+
+    // Output and stats of one chunk
+    private static class Chunk {
+        byte[] output = new byte[256];
+        int outputSize = 0;
+        final BulkSolveStats stats = new BulkSolveStats();
+
+        void write(byte value) {
+            if (outputSize == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            output[outputSize++] = value;
+        }
+
+        void write(@NotNull byte[] values) {
+            for (byte value : values) {
+                write(value);
+            }
+        }
+    }
+
+    // Reused by every chunk solved on a thread
+    private static class Worker {
+        final SudokuSolver solver = new SudokuSolver(DIMENSION);
+        final int[] cells = new int[CELL_COUNT];
+        final int[] solution = new int[CELL_COUNT];
+    }
+
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    @NotNull
+    public BulkSolveStats solve(@NotNull File input, @NotNull File output) throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        BulkSolveStats stats = new BulkSolveStats();
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "BulkSolver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(output), 1 << 16)) {
+            long size = channel.size();
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+            long start = 0;
+            while (start < size || !pending.isEmpty()) {
+                // Keep a bounded amount of chunks in flight, write the oldest when the window is full
+                while (start < size && pending.size() < workerCount * CHUNKS_PER_WORKER) {
+                    long chunkStart = start;
+                    long chunkEnd = Math.min(size, start + chunkBytes);
+                    pending.add(executor.submit(() -> solveChunk(channel, size, chunkStart, chunkEnd)));
+                    start = chunkEnd;
+                }
+                Chunk chunk = pending.remove().get();
+                out.write(chunk.output, 0, chunk.outputSize);
+                stats.add(chunk.stats);
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Solving a chunk failed", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        stats.setElapsedNanos(System.nanoTime() - startNanos);
+        return stats;
+    }
+
+    // Solve the lines that start within [start, end)
+    // A line crossing the end belongs to this chunk, the next chunk skips it
+    @NotNull
+    private Chunk solveChunk(@NotNull FileChannel channel, long size, long start, long end) throws IOException {
+        long windowStart = Math.max(0, start - 1); // One byte back to see if start is a line start
+        long windowEnd = Math.min(size, end + CELL_COUNT + 2); // Room for the 81 cells and separator of the last line
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+        int limit = (int) (windowEnd - windowStart);
+        int stop = (int) (end - windowStart);
+        int position = (int) (start - windowStart);
+        if (start > 0 && buffer.get(position - 1) != '\n') { // Started mid-line
+            position = lineEnd(buffer, position, limit) + 1;
+        }
+
+        Chunk chunk = new Chunk();
+        Worker worker = workers.get();
+        while (position < stop) {
+            int lineEnd = lineEnd(buffer, position, limit);
+            solveLine(buffer, position, lineEnd, worker, chunk);
+            position = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private static int lineEnd(@NotNull MappedByteBuffer buffer, int position, int limit) {
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private void solveLine(@NotNull MappedByteBuffer buffer, int start, int end, @NotNull Worker worker,
+                                  @NotNull Chunk chunk) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start || buffer.get(start) == '#') {
+            return;
+        }
+        if (!parse(buffer, start, end, worker.cells)) {
+            chunk.write(INVALID);
+            chunk.stats.recordInvalid();
+            return;
+        }
+        long solveStart = System.nanoTime();
+        SolveResult result = worker.solver.solve(worker.cells, worker.solution, maxNodes, maxMillis, token);
+        chunk.stats.recordSolve(result, System.nanoTime() - solveStart);
+        switch (result) {
+            case UNIQUE:
+                writeCells(chunk, worker.solution);
+                chunk.write((byte) '\n');
+                break;
+            case MULTIPLE:
+                writeCells(chunk, worker.solution);
+                chunk.write(MULTIPLE);
+                break;
+            case UNSOLVABLE:
+                writeCells(chunk, worker.cells);
+                chunk.write(UNSOLVABLE);
+                break;
+            default:
+                writeCells(chunk, worker.cells);
+                chunk.write(GAVE_UP);
+                break;
+        }
+    }
+
+    // Read the 81 cells of a line, return false if the line is not a puzzle
+    private static boolean parse(@NotNull MappedByteBuffer buffer, int start, int end, @NotNull int[] cells) {
+        if (end - start < CELL_COUNT) {
+            return false;
+        }
+        if (end - start > CELL_COUNT && !isWhitespace(buffer.get(start + CELL_COUNT))) {
+            return false;
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            byte value = buffer.get(start + cell);
+            if (value >= '1' && value <= '9') {
+                cells[cell] = value - '0';
+            }
+            else if (value == '0' || value == '.') {
+                cells[cell] = 0;
+            }
+            else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\t';
+    }
+
+    private static void writeCells(@NotNull Chunk chunk, @NotNull int[] cells) {
+        for (int value : cells) {
+            chunk.write((byte) ('0' + value));
+        }
+    }
+}
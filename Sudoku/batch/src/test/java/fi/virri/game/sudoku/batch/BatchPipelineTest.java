@@ -0,0 +1,59 @@
+package fi.virri.game.sudoku.batch;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import fi.virri.game.sudoku.generator.Grader;
+import fi.virri.game.sudoku.generator.PuzzleId;
+import fi.virri.game.sudoku.generator.PuzzlePool;
+import fi.virri.game.sudoku.generator.Sudoku;
+
+import static org.junit.Assert.*;
+
+public class BatchPipelineTest {
+
+    @Test
+    public void eachBucketGetsTheRequestedPuzzles() throws IOException, InterruptedException {
+        File directory = Files.createTempDirectory("bank").toFile();
+        directory.deleteOnExit();
+        BatchOptions options = BatchOptions.parse(new String[]{"--count=3", "--out=" + directory,
+                "--dig-workers=2", "--queue=2", "--seed=42", "--report-ms=50"});
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        new BatchPipeline(options, new PrintStream(log, true, "UTF-8")).run();
+
+        Grader grader = new Grader(9);
+        for (int difficulty = PuzzlePool.EASY; difficulty <= PuzzlePool.HARD; difficulty++) {
+            File file = new File(directory, "puzzles-" + difficulty + ".txt");
+            file.deleteOnExit();
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+            assertEquals(3, lines.size());
+            for (String line : lines) {
+                String[] parts = line.split(" ");
+                int[][] board = new int[9][9];
+                int emptyCount = 0;
+                for (int i = 0; i < 81; i++) {
+                    board[i / 9][i % 9] = parts[0].charAt(i) - '0';
+                    if (board[i / 9][i % 9] == 0) {
+                        emptyCount++;
+                    }
+                }
+                assertTrue(emptyCount >= PuzzlePool.digitsToRemove(difficulty));
+                assertTrue(grader.grade(board).getTier() >= difficulty);
+
+                // The ID regenerates the same puzzle
+                long puzzleId = Long.parseUnsignedLong(parts[1], 16);
+                assertEquals(difficulty, PuzzleId.getTargetTier(puzzleId));
+                assertArrayEquals(board, Sudoku.fromPuzzleId(puzzleId).board);
+            }
+        }
+        assertTrue(log.toString("UTF-8").contains("Done: 9 puzzles"));
+    }
+}
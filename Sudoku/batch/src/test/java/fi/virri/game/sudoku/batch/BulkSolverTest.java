@@ -0,0 +1,75 @@
+package fi.virri.game.sudoku.batch;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BulkSolverTest {
+    private static final String UNIQUE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    private static final String SOLUTION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    private static File createFile(String suffix) throws IOException {
+        File file = File.createTempFile("bulk", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void everyLineIsSolvedInOrder() throws IOException, InterruptedException {
+        String dotted = UNIQUE.replace('0', '.');
+        String conflicting = "55" + UNIQUE.substring(2);
+        List<String> input = Arrays.asList(
+                "# comment", UNIQUE, dotted + " 6c32020e35b2c4dd", "", dotted.replace('.', '0').substring(0, 80),
+                conflicting, "000000000000000000000000000000000000000000000000000000000000000000000000000000000",
+                UNIQUE + "\r", UNIQUE + "x");
+        File in = createFile(".txt");
+        File out = createFile(".out");
+        Files.write(in.toPath(), input, StandardCharsets.US_ASCII);
+
+        // Tiny chunks so that lines cross chunk boundaries
+        BulkSolveStats stats = new BulkSolver(3, 37).solve(in, out);
+
+        List<String> output = Files.readAllLines(out.toPath(), StandardCharsets.US_ASCII);
+        assertEquals(7, output.size());
+        assertEquals(SOLUTION, output.get(0));
+        assertEquals(SOLUTION, output.get(1));
+        assertEquals("invalid", output.get(2));
+        assertEquals(conflicting + " unsolvable", output.get(3));
+        assertTrue(output.get(4).endsWith(" multiple"));
+        assertEquals(SOLUTION, output.get(5));
+        assertEquals("invalid", output.get(6));
+
+        assertEquals(7, stats.getPuzzleCount());
+        assertEquals(3, stats.getUniqueCount());
+        assertEquals(1, stats.getMultipleCount());
+        assertEquals(1, stats.getUnsolvableCount());
+        assertEquals(2, stats.getInvalidCount());
+        assertEquals(5, stats.getSolveTimes().getCount());
+        assertTrue(stats.getSolveTimes().percentile(0.5) <= stats.getSolveTimes().percentile(0.99));
+    }
+
+    @Test
+    public void nodeLimitGivesUpOnBranchingPuzzles() throws IOException, InterruptedException {
+        String empty = "000000000000000000000000000000000000000000000000000000000000000000000000000000000";
+        File in = createFile(".txt");
+        File out = createFile(".out");
+        Files.write(in.toPath(), Arrays.asList(UNIQUE, empty), StandardCharsets.US_ASCII);
+
+        BulkSolver solver = new BulkSolver(1);
+        solver.setMaxNodes(1); // Enough for singles, not for a single branch
+        BulkSolveStats stats = solver.solve(in, out);
+
+        List<String> output = Files.readAllLines(out.toPath(), StandardCharsets.US_ASCII);
+        assertEquals(Arrays.asList(SOLUTION, empty + " gave-up"), output);
+        assertEquals(1, stats.getGaveUpCount());
+    }
+}
@@ -0,0 +1,45 @@
+package fi.virri.game.sudoku.generator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixed 9x9 puzzles for the benchmarks, one 81 character line per puzzle ('0' for an empty cell)
+// puzzles-N.txt holds 50 puzzles of difficulty N generated from the seeds N * 1000 + i
+final class Corpus {
+    private Corpus() {
+    }
+
+    static int[][][] load(int difficulty) {
+        String resource = "/puzzles-" + difficulty + ".txt";
+        List<int[][]> puzzles = new ArrayList<>();
+        try (InputStream in = Corpus.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing corpus: " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 81) {
+                    puzzles.add(parse(line));
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unreadable corpus: " + resource, e);
+        }
+        return puzzles.toArray(new int[0][][]);
+    }
+
+    private static int[][] parse(String line) {
+        int[][] board = new int[9][9];
+        for (int i = 0; i < 81; i++) {
+            board[i / 9][i % 9] = line.charAt(i) - '0';
+        }
+        return board;
+    }
+}
@@ -0,0 +1,43 @@
+package fi.virri.game.sudoku.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Building solution grids with each fill strategy
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FillBenchmark {
+    @Param({"9", "16"})
+    public int dimension;
+
+    @Param({"BACKTRACKING", "TRANSFORM"})
+    public FillStrategy fillStrategy;
+
+    private GeneratorSettings settings;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        settings = new GeneratorSettings();
+        settings.setFillStrategy(fillStrategy);
+        random = new SplittableRandom(42);
+        GridTransformer.forDimension(dimension); // Seed grids are built outside the measurement
+    }
+
+    @Benchmark
+    public int[][] fillValues() {
+        Sudoku sudoku = new Sudoku(dimension, settings, random);
+        sudoku.fillValues();
+        return sudoku.board;
+    }
+}
@@ -0,0 +1,75 @@
+package fi.virri.game.sudoku.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Digging and end-to-end generation of 9x9 boards per difficulty
+// Every operation draws from a seeded random sequence, so runs repeat the same boards
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeneratorBenchmark {
+    private static final int DIMENSION = 9;
+    private static final int GRID_COUNT = 64; // Filled grids prepared for the digging benchmark
+    private static final long SEED = 42;
+
+    @Param({"1", "2", "3"})
+    public int difficulty;
+
+    @Param({"BACKTRACKING", "TRANSFORM"})
+    public FillStrategy fillStrategy;
+
+    @Param({"false", "true"})
+    public boolean parallel; // Candidate removals tested on several threads, as for on-demand generation
+
+    private GeneratorSettings settings;
+    private SplittableRandom random;
+    private int[][][] grids;
+    private int nextGrid = 0;
+    private long nextSeed = SEED;
+    private final CancellationToken token = new CancellationToken();
+
+    @Setup
+    public void setUp() {
+        settings = PuzzlePool.settings(difficulty);
+        settings.setFillStrategy(fillStrategy);
+        settings.setParallel(parallel);
+        random = new SplittableRandom(SEED);
+        grids = new int[GRID_COUNT][][];
+        for (int i = 0; i < GRID_COUNT; i++) {
+            Sudoku sudoku = new Sudoku(DIMENSION, settings, random);
+            sudoku.fillValues();
+            grids[i] = sudoku.solvedBoard;
+        }
+    }
+
+    // One digging pass over a prepared grid, including the copy of the grid
+    // A pass may fall short of the target, generate() would then start over with a new grid
+    @Benchmark
+    public int removeDigits() {
+        int[][] grid = grids[nextGrid];
+        nextGrid = (nextGrid + 1) % GRID_COUNT;
+        Sudoku sudoku = new Sudoku(DIMENSION, settings, random);
+        for (int row = 0; row < DIMENSION; row++) {
+            System.arraycopy(grid[row], 0, sudoku.board[row], 0, DIMENSION);
+            System.arraycopy(grid[row], 0, sudoku.solvedBoard[row], 0, DIMENSION);
+        }
+        int digitsToRemove = PuzzlePool.digitsToRemove(difficulty);
+        return parallel ? sudoku.removeDigitsParallel(digitsToRemove, token) : sudoku.removeDigits(digitsToRemove, token);
+    }
+
+    // Everything a player waits for when the pool is empty
+    @Benchmark
+    public Sudoku generate() {
+        return Sudoku.generate(DIMENSION, PuzzlePool.digitsToRemove(difficulty), nextSeed++, settings, token);
+    }
+}
@@ -0,0 +1,41 @@
+package fi.virri.game.sudoku.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Solving the fixed corpus of a difficulty - one puzzle per operation, cycling through the corpus
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolverBenchmark {
+    @Param({"BITMASK", "DANCING_LINKS"})
+    public SolverEngine engine;
+
+    @Param({"1", "2", "3"})
+    public int difficulty;
+
+    private int[][][] puzzles;
+    private SolutionCounter solver;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        puzzles = Corpus.load(difficulty);
+        solver = engine.create(9);
+    }
+
+    @Benchmark
+    public int solve() {
+        int[][] puzzle = puzzles[next];
+        next = (next + 1) % puzzles.length;
+        return solver.countSolutions(puzzle, 2);
+    }
+}
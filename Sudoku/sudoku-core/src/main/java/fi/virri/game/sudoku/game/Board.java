@@ -0,0 +1,239 @@
+package fi.virri.game.sudoku.game;
+
+import java.util.Arrays;
+
+// A game in progress packed into primitive arrays indexed by cell (row * size + col)
+// SudokuGame, SudokuBoardView and the saves all share these arrays - a Cell is only a view into them
+public class Board {
+    private static final int RADIX = 36; // Digits are saved as one character, enough for 25x25 boards
+
+    public final int size; // Row/column amount
+    private final byte[] givens; // Starting digits, 0 for the cells the player fills
+    private final byte[] solution; // Digits of the unique solution
+    private final byte[] values; // Current digits, 0 for empty cells
+    private final int[] notes; // Noted digits of each cell, bit (digit - 1) is set if the digit is noted
+    private final Cell[] cells; // Views of the cells, created once per board
+    private boolean isImmutable = false; // Solved board - every cell acts as a starting cell
+    private int mistakeCount; // Filled cells whose digit differs from the solution
+    private int emptyCount; // Cells without a digit - the board is solved when both counts are 0
+    private final ConflictIndex conflicts; // Cells sharing their digit with another cell of a house
+
+    public Board(int size, byte[] givens, byte[] solution, byte[] values, int[] notes){
+        int cellCount = size*size;
+        if(givens.length != cellCount || solution.length != cellCount || values.length != cellCount
+                || notes.length != cellCount){
+            throw new IllegalArgumentException("Expected " + cellCount + " cells");
+        }
+        this.size = size;
+        this.givens = givens;
+        this.solution = solution;
+        this.values = values;
+        this.notes = notes;
+        cells = new Cell[cellCount];
+        for(int i=0; i<cellCount; i++){
+            cells[i] = new Cell(this, i / size, i % size);
+        }
+        countMismatches();
+        conflicts = new ConflictIndex(size, values);
+    }
+
+    // New game - the generated puzzle and its solution are converted once here
+    public static Board fromPuzzle(int[][] puzzle, int[][] solvedBoard){
+        int size = puzzle.length;
+        byte[] givens = new byte[size*size];
+        byte[] solution = new byte[size*size];
+        for(int row=0; row<size; row++){
+            for(int col=0; col<size; col++){
+                givens[row * size + col] = (byte) puzzle[row][col];
+                solution[row * size + col] = (byte) solvedBoard[row][col];
+            }
+        }
+        return new Board(size, givens, solution, givens.clone(), new int[size*size]);
+    }
+
+    // Saved game - the codes come from encodeGivens(), encodeSolution(), encodeValues() and encodeNotes()
+    public static Board decode(int size, String givens, String solution, String values, String notes){
+        return new Board(size, decodeDigits(givens), decodeDigits(solution), decodeDigits(values),
+                decodeNotes(notes, size*size));
+    }
+
+    // Get cell from specified position
+    public Cell getCell(int row, int col){
+        return cells[row * size + col];
+    }
+
+    public Cell getCell(int index){
+        return cells[index];
+    }
+
+    public int getCellCount(){
+        return cells.length;
+    }
+
+    public int getValue(int index){
+        return values[index];
+    }
+
+    // Keeps the counts and the conflicts up to date, so isSolved(), the conflicts and the hints need no scan
+    public void setValue(int index, int value){
+        conflicts.setValue(index, values[index], value);
+        count(index, -1);
+        values[index] = (byte) value;
+        count(index, 1);
+    }
+
+    public int getSolution(int index){
+        return solution[index];
+    }
+
+    public boolean isStartingCell(int index){
+        return isImmutable || givens[index] != 0;
+    }
+
+    public int getNoteMask(int index){
+        return notes[index];
+    }
+
+    public boolean hasNote(int index, int digit){
+        return (notes[index] & (1 << (digit - 1))) != 0;
+    }
+
+    // Add the note if it is missing, otherwise remove it
+    // Return true if the note was added
+    public boolean toggleNote(int index, int digit){
+        notes[index] ^= 1 << (digit - 1);
+        return hasNote(index, digit);
+    }
+
+    // Every digit matches the solution
+    public boolean isSolved(){
+        return mistakeCount == 0 && emptyCount == 0;
+    }
+
+    // Empty or wrong cells
+    public int getMismatchCount(){
+        return mistakeCount + emptyCount;
+    }
+
+    // Filled cells that do not match the solution
+    public int getMistakeCount(){
+        return mistakeCount;
+    }
+
+    public int getEmptyCount(){
+        return emptyCount;
+    }
+
+    // Back to the starting digits without notes
+    public void reset(){
+        System.arraycopy(givens, 0, values, 0, values.length);
+        Arrays.fill(notes, 0);
+        isImmutable = false;
+        countMismatches();
+        conflicts.rebuild(values);
+    }
+
+    // Fill every cell with its digit of the solution and drop the notes
+    public void fillSolution(){
+        System.arraycopy(solution, 0, values, 0, values.length);
+        Arrays.fill(notes, 0);
+        mistakeCount = 0;
+        emptyCount = 0;
+        conflicts.rebuild(values);
+    }
+
+    public ConflictIndex getConflicts(){
+        return conflicts;
+    }
+
+    // Full count, only when every value changes at once
+    private void countMismatches(){
+        mistakeCount = 0;
+        emptyCount = 0;
+        for(int i=0; i<values.length; i++){
+            count(i, 1);
+        }
+    }
+
+    // Add or remove the value of a cell from the counts
+    private void count(int index, int change){
+        if(values[index] == 0){
+            emptyCount += change;
+        }
+        else if(values[index] != solution[index]){
+            mistakeCount += change;
+        }
+    }
+
+    // Set all cells to starting cells
+    // This disables interaction with the board when board is solved
+    public void setImmutableDigits(){
+        isImmutable = true;
+    }
+
+    // Current digits (row * size + col) for the HintEngine - read only
+    byte[] getValues(){
+        return values;
+    }
+
+    public String encodeGivens(){
+        return encodeDigits(givens);
+    }
+
+    public String encodeSolution(){
+        return encodeDigits(solution);
+    }
+
+    public String encodeValues(){
+        return encodeDigits(values);
+    }
+
+    public String encodeNotes(){
+        return encodeNotes(notes, size);
+    }
+
+    // One base-36 character per cell
+    public static String encodeDigits(byte[] digits){
+        char[] code = new char[digits.length];
+        for(int i=0; i<digits.length; i++){
+            code[i] = Character.forDigit(digits[i], RADIX);
+        }
+        return new String(code);
+    }
+
+    public static byte[] decodeDigits(String code){
+        byte[] digits = new byte[code.length()];
+        for(int i=0; i<digits.length; i++){
+            int digit = Character.digit(code.charAt(i), RADIX);
+            if(digit == -1){
+                throw new IllegalArgumentException("Unexpected digit: " + code.charAt(i));
+            }
+            digits[i] = (byte) digit;
+        }
+        return digits;
+    }
+
+    // Fixed width hex mask per cell - 3 characters per cell on a 9x9 board
+    public static String encodeNotes(int[] notes, int size){
+        int width = (size + 3) / 4;
+        char[] code = new char[notes.length * width];
+        for(int i=0; i<notes.length; i++){
+            for(int j=0; j<width; j++){
+                code[i * width + j] = Character.forDigit((notes[i] >>> (4 * (width - 1 - j))) & 0xf, 16);
+            }
+        }
+        return new String(code);
+    }
+
+    public static int[] decodeNotes(String code, int cellCount){
+        if(code.length() % cellCount != 0){
+            throw new IllegalArgumentException("Expected notes of " + cellCount + " cells");
+        }
+        int width = code.length() / cellCount;
+        int[] notes = new int[cellCount];
+        for(int i=0; i<cellCount; i++){
+            notes[i] = Integer.parseInt(code.substring(i * width, (i + 1) * width), 16);
+        }
+        return notes;
+    }
+}
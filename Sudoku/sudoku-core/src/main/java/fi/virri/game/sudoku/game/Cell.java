@@ -0,0 +1,48 @@
+package fi.virri.game.sudoku.game;
+
+// View of one cell of a Board - reads and writes go straight to the packed arrays of the board
+public class Cell {
+    public final int row;
+    public final int col;
+    private final Board board;
+    private final int index; // row * size + col
+
+    Cell(Board board, int row, int col){
+        this.board = board;
+        this.row = row;
+        this.col = col;
+        this.index = row * board.size + col;
+    }
+
+    public int getValue(){
+        return board.getValue(index);
+    }
+
+    public void setValue(int value){
+        board.setValue(index, value);
+    }
+
+    public boolean isStartingCell(){
+        return board.isStartingCell(index);
+    }
+
+    public boolean hasNote(int digit){
+        return board.hasNote(index, digit);
+    }
+
+    // Return true if the note was added, false if it was removed
+    public boolean toggleNote(int digit){
+        return board.toggleNote(index, digit);
+    }
+
+    // Noted digits, bit (digit - 1) is set if the digit is noted
+    public int getNoteMask(){
+        return board.getNoteMask(index);
+    }
+
+    // Lowest noted digit of a mask, 0 if the mask is empty
+    // Iterate with: for(int m = mask; m != 0; m &= m - 1) { int digit = Cell.lowestNote(m); ... }
+    public static int lowestNote(int mask){
+        return mask == 0 ? 0 : Integer.numberOfTrailingZeros(mask) + 1;
+    }
+}
@@ -0,0 +1,172 @@
+package fi.virri.game.sudoku.game;
+
+import java.util.Arrays;
+
+// Cells whose digit also appears elsewhere in their row, column or sub-grid, kept up to date on every edit
+// Each house keeps a position mask per digit, so its digit count is a bit count and the other cell
+// holding the digit is found without scanning the house. The digits present in each house are kept too,
+// which the HintEngine reads for the candidates of the empty cells.
+public class ConflictIndex {
+    private final int size; // Row/column amount
+    private final int sqrtSize; // Sub-grid row/column amount
+    private final int[] rowDigits; // [row * size + digit - 1], bit per column holding the digit
+    private final int[] colDigits; // [col * size + digit - 1], bit per row holding the digit
+    private final int[] boxDigits; // [box * size + digit - 1], bit per position in the sub-grid holding the digit
+    private final int[] houseDigits; // Bit (digit - 1) per digit present in each row, then column, then sub-grid
+    private final long[] conflicts; // Bit per conflicting cell
+    private final long[] changed; // Bit per cell whose conflict state flipped since the last drain
+    private int conflictCount = 0;
+
+    public ConflictIndex(int size, byte[] values){
+        this.size = size;
+        sqrtSize = (int) Math.sqrt(size);
+        rowDigits = new int[size*size];
+        colDigits = new int[size*size];
+        boxDigits = new int[size*size];
+        houseDigits = new int[3*size];
+        conflicts = new long[(size*size + 63) / 64];
+        changed = new long[conflicts.length];
+        rebuild(values);
+    }
+
+    // Index every value again, only when every value changes at once
+    public void rebuild(byte[] values){
+        Arrays.fill(rowDigits, 0);
+        Arrays.fill(colDigits, 0);
+        Arrays.fill(boxDigits, 0);
+        Arrays.fill(houseDigits, 0);
+        for(int i=0; i<values.length; i++){
+            if(values[i] != 0){
+                toggleDigit(i, values[i]);
+            }
+        }
+        for(int i=0; i<values.length; i++){
+            refresh(i, values[i]);
+        }
+    }
+
+    // Value of a cell changed - only the cell and at most one other cell per house can change state
+    public void setValue(int index, int oldValue, int newValue){
+        if(oldValue == newValue){
+            return;
+        }
+        if(oldValue != 0){
+            toggleDigit(index, oldValue);
+        }
+        if(newValue != 0){
+            toggleDigit(index, newValue);
+        }
+        refresh(index, newValue);
+        if(oldValue != 0){ // The last other holder of the old digit may no longer conflict
+            refreshOthers(index, oldValue);
+        }
+        if(newValue != 0){ // The only other holder of the new digit now conflicts
+            refreshOthers(index, newValue);
+        }
+    }
+
+    public boolean isConflicting(int index){
+        return (conflicts[index >>> 6] & 1L << index) != 0;
+    }
+
+    public int getConflictCount(){
+        return conflictCount;
+    }
+
+    // Digits present in a house - rows are houses 0 to size - 1, then columns, then sub-grids
+    public int getHouseDigits(int house){
+        return houseDigits[house];
+    }
+
+    // Digits present in the row, column or sub-grid of a cell
+    public int getPeerDigits(int index){
+        int row = index / size;
+        int col = index % size;
+        return houseDigits[row] | houseDigits[size + col] | houseDigits[2*size + box(row, col)];
+    }
+
+    // Bit per conflicting cell (index >>> 6, bit index & 63) - read only
+    public long[] getConflicts(){
+        return conflicts;
+    }
+
+    // Add the cells whose conflict state flipped to the given bit set and clear the flips
+    public void drainChangedTo(long[] cells){
+        for(int i=0; i<changed.length; i++){
+            cells[i] |= changed[i];
+            changed[i] = 0;
+        }
+    }
+
+    // Flip the bits of a cell in the masks of its three houses
+    private void toggleDigit(int index, int digit){
+        int row = index / size;
+        int col = index % size;
+        int d = digit - 1;
+        int box = box(row, col);
+        rowDigits[row*size + d] ^= 1 << col;
+        colDigits[col*size + d] ^= 1 << row;
+        boxDigits[box*size + d] ^= 1 << boxPosition(row, col);
+        updateHouseDigit(row, rowDigits[row*size + d], d);
+        updateHouseDigit(size + col, colDigits[col*size + d], d);
+        updateHouseDigit(2*size + box, boxDigits[box*size + d], d);
+    }
+
+    private void updateHouseDigit(int house, int positions, int d){
+        if(positions != 0){
+            houseDigits[house] |= 1 << d;
+        }
+        else{
+            houseDigits[house] &= ~(1 << d);
+        }
+    }
+
+    // A house with exactly one other holder of the digit decides that cell's state, more holders conflict either way
+    private void refreshOthers(int index, int digit){
+        int row = index / size;
+        int col = index % size;
+        int d = digit - 1;
+        int box = box(row, col);
+        int others = rowDigits[row*size + d] & ~(1 << col);
+        if(Integer.bitCount(others) == 1){
+            refresh(row*size + Integer.numberOfTrailingZeros(others), digit);
+        }
+        others = colDigits[col*size + d] & ~(1 << row);
+        if(Integer.bitCount(others) == 1){
+            refresh(Integer.numberOfTrailingZeros(others)*size + col, digit);
+        }
+        others = boxDigits[box*size + d] & ~(1 << boxPosition(row, col));
+        if(Integer.bitCount(others) == 1){
+            int position = Integer.numberOfTrailingZeros(others);
+            int boxRow = box / sqrtSize * sqrtSize + position / sqrtSize;
+            int boxCol = box % sqrtSize * sqrtSize + position % sqrtSize;
+            refresh(boxRow*size + boxCol, digit);
+        }
+    }
+
+    // Work out the state of a cell holding the given value from the house masks
+    private void refresh(int index, int value){
+        boolean isConflicting = false;
+        if(value != 0){
+            int row = index / size;
+            int col = index % size;
+            int d = value - 1;
+            isConflicting = Integer.bitCount(rowDigits[row*size + d]) > 1
+                    || Integer.bitCount(colDigits[col*size + d]) > 1
+                    || Integer.bitCount(boxDigits[box(row, col)*size + d]) > 1;
+        }
+        if(isConflicting != isConflicting(index)){
+            conflicts[index >>> 6] ^= 1L << index;
+            changed[index >>> 6] ^= 1L << index; // Flipping back before a drain needs no redraw
+            conflictCount += isConflicting ? 1 : -1;
+        }
+    }
+
+    private int box(int row, int col){
+        return row / sqrtSize * sqrtSize + col / sqrtSize;
+    }
+
+    private int boxPosition(int row, int col){
+        return row % sqrtSize * sqrtSize + col % sqrtSize;
+    }
+}
@@ -0,0 +1,56 @@
+package fi.virri.game.sudoku.game;
+
+import fi.virri.game.sudoku.generator.Grader;
+import fi.virri.game.sudoku.generator.Hint;
+
+// Hints for a game in progress
+// The digits of every row, column and sub-grid and the mistakes are counted by the board, so only the candidates
+// of the cells around an edit are updated here, and a hint copies them into the Grader to step to the next placement.
+public class HintEngine {
+    private final Board board;
+    private final int[] candidates; // Digits an empty cell can still take, 0 for filled cells
+    private final int allDigits; // Candidate mask with every digit set
+    private final Grader grader;
+
+    public HintEngine(Board board){
+        this.board = board;
+        candidates = new int[board.getCellCount()];
+        allDigits = (1 << board.size) - 1;
+        grader = new Grader(board.size);
+        for(int i=0; i<candidates.length; i++){
+            updateCandidates(i);
+        }
+    }
+
+    // Update the candidates after a value of the board changed
+    public void update(int row, int col){
+        int size = board.size;
+        int sqrtSize = (int) Math.sqrt(size);
+        int boxRow = row / sqrtSize * sqrtSize;
+        int boxCol = col / sqrtSize * sqrtSize;
+        for(int i=0; i<size; i++){
+            updateCandidates(row*size + i);
+            updateCandidates(i*size + col);
+            updateCandidates((boxRow + i / sqrtSize)*size + boxCol + i % sqrtSize);
+        }
+    }
+
+    // The first mistake if the board has any, otherwise the next digit found by logic
+    // Return null if the board is full or needs more than the techniques of the Grader
+    public Hint nextHint(){
+        if(board.getMistakeCount() > 0){
+            for(int i=0; i<candidates.length; i++){
+                int value = board.getValue(i);
+                if(value != 0 && value != board.getSolution(i)){
+                    return Hint.mistake(i / board.size, i % board.size, value);
+                }
+            }
+        }
+        return grader.nextPlacement(board.getValues(), candidates, board.getEmptyCount());
+    }
+
+    private void updateCandidates(int index){
+        candidates[index] = board.getValue(index) != 0 ? 0
+                : ~board.getConflicts().getPeerDigits(index) & allDigits;
+    }
+}
@@ -0,0 +1,139 @@
+package fi.virri.game.sudoku.game;
+
+// Undo/redo history of a game - every value or note edit is one packed int, no board snapshots
+// Bits 0-9: cell index, 10-14: old value, 15-19: new value (the digit of a note edit), 20: note edit
+// The buffer grows up to MAX_MOVES, after that the oldest moves are overwritten
+public class MoveLog {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_MOVES = 1 << 16; // 256 KiB of history at most
+    private static final int CELL_MASK = 0x3ff; // Up to 1024 cells, 25x25 boards have 625
+    private static final int VALUE_MASK = 0x1f; // Up to digit 31
+    private static final int OLD_SHIFT = 10;
+    private static final int NEW_SHIFT = 15;
+    private static final int NOTE_BIT = 1 << 20;
+    private static final int MOVE_CHARS = 6; // Hex characters of a saved move
+
+    private int[] moves = new int[INITIAL_CAPACITY]; // Ring buffer
+    private int start = 0; // Position of the oldest move
+    private int size = 0; // Recorded moves, including undone ones that can be redone
+    private int cursor = 0; // Moves currently applied - the next undo is cursor - 1, the next redo is cursor
+
+    public static int valueMove(int cell, int oldValue, int newValue){
+        return cell | oldValue << OLD_SHIFT | newValue << NEW_SHIFT;
+    }
+
+    // Toggling a note is its own inverse, so only the digit is stored
+    public static int noteMove(int cell, int digit){
+        return cell | digit << NEW_SHIFT | NOTE_BIT;
+    }
+
+    public static int getCell(int move){
+        return move & CELL_MASK;
+    }
+
+    public static int getOldValue(int move){
+        return (move >>> OLD_SHIFT) & VALUE_MASK;
+    }
+
+    public static int getNewValue(int move){
+        return (move >>> NEW_SHIFT) & VALUE_MASK;
+    }
+
+    public static boolean isNoteMove(int move){
+        return (move & NOTE_BIT) != 0;
+    }
+
+    // Record an applied move - the moves undone before it can no longer be redone
+    public void record(int move){
+        size = cursor;
+        if(size == moves.length){
+            if(moves.length < MAX_MOVES){
+                grow();
+            }
+            else{ // Full - forget the oldest move
+                start = (start + 1) % moves.length;
+                size--;
+            }
+        }
+        moves[(start + size) % moves.length] = move;
+        size++;
+        cursor = size;
+    }
+
+    public boolean canUndo(){
+        return cursor > 0;
+    }
+
+    public boolean canRedo(){
+        return cursor < size;
+    }
+
+    // Move to revert, call only if canUndo()
+    public int undo(){
+        cursor--;
+        return moves[(start + cursor) % moves.length];
+    }
+
+    // Move to apply again, call only if canRedo()
+    public int redo(){
+        int move = moves[(start + cursor) % moves.length];
+        cursor++;
+        return move;
+    }
+
+    public void clear(){
+        start = 0;
+        size = 0;
+        cursor = 0;
+    }
+
+    // Applied moves, oldest first
+    public int getCursor(){
+        return cursor;
+    }
+
+    // Fixed width hex per move, oldest first - the redoable moves are included
+    public String encode(){
+        char[] code = new char[size * MOVE_CHARS];
+        for(int i=0; i<size; i++){
+            int move = moves[(start + i) % moves.length];
+            for(int j=0; j<MOVE_CHARS; j++){
+                code[i * MOVE_CHARS + j] = Character.forDigit((move >>> (4 * (MOVE_CHARS - 1 - j))) & 0xf, 16);
+            }
+        }
+        return new String(code);
+    }
+
+    // Log of a saved game - the code comes from encode(), cursor from getCursor()
+    public static MoveLog decode(String code, int cursor){
+        if(code.length() % MOVE_CHARS != 0){
+            throw new IllegalArgumentException("Expected " + MOVE_CHARS + " characters per move");
+        }
+        int count = code.length() / MOVE_CHARS;
+        if(cursor < 0 || cursor > count){
+            throw new IllegalArgumentException("Unexpected cursor: " + cursor);
+        }
+        MoveLog log = new MoveLog();
+        int capacity = INITIAL_CAPACITY;
+        while(capacity < count){
+            capacity *= 2;
+        }
+        log.moves = new int[capacity];
+        for(int i=0; i<count; i++){
+            log.moves[i] = Integer.parseInt(code.substring(i * MOVE_CHARS, (i + 1) * MOVE_CHARS), 16);
+        }
+        log.size = count;
+        log.cursor = cursor;
+        return log;
+    }
+
+    // Double the buffer and unwrap the ring to start at 0
+    private void grow(){
+        int[] grown = new int[moves.length * 2];
+        for(int i=0; i<size; i++){
+            grown[i] = moves[(start + i) % moves.length];
+        }
+        moves = grown;
+        start = 0;
+    }
+}
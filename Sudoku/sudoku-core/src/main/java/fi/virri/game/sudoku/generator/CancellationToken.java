@@ -0,0 +1,24 @@
+package fi.virri.game.sudoku.generator;
+
+import java.util.concurrent.CancellationException;
+
+// Shared flag for stopping a running generation from another thread
+public class CancellationToken {
+    private volatile boolean isCancelled = false;
+
+    // Request the generation to stop
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    // Throw CancellationException if cancellation was requested
+    public void throwIfCancelled() {
+        if (isCancelled) {
+            throw new CancellationException("Generation cancelled");
+        }
+    }
+}
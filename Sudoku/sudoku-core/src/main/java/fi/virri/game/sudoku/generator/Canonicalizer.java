@@ -0,0 +1,184 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+// Canonical form of a 9x9 puzzle under the transforms that keep it the same puzzle to a player:
+// relabeling digits, transposing, swapping bands or stacks and swapping rows or columns inside them
+// The canonical form is the smallest row-major cell sequence over all of those, with empty cells as 0 and
+// digits labeled 1, 2, 3... in order of first appearance. Equivalent puzzles have the same canonical form and hash.
+// Reuses its buffers - use one instance per thread
+public class Canonicalizer {
+    private static final int DIMENSION = 9; // Board column/row amount
+    private static final int BAND = 3; // Rows in a band, columns in a stack
+    private static final int CELL_COUNT = DIMENSION * DIMENSION;
+    private static final int UNSET = DIMENSION + 1; // Larger than any label - rows of the best form not chosen yet
+    private static final int[][] COLUMN_ORDERS = lineOrders(); // Every stack order with every column order inside
+
+    private final int[][] transposed = new int[DIMENSION][DIMENSION];
+    private int[][] grid; // Board or its transpose
+    private int[] columnOrder; // Column of the grid placed at each column position
+    private final int[] best = new int[CELL_COUNT]; // Smallest form found so far
+    private final int[] label = new int[DIMENSION + 1]; // Canonical label of each digit of the grid, 0 if not seen yet
+    private final int[] labeled = new int[DIMENSION]; // Digits in labeling order, for undoing labels when backtracking
+    private int labelCount = 0;
+    private final int[] bandAt = new int[BAND]; // Band of the grid placed at each band position
+    private final boolean[] isBandUsed = new boolean[BAND];
+    private final boolean[] isRowUsed = new boolean[DIMENSION];
+
+    // Canonical form of a 9x9 board as 81 cells in row-major order
+    @NotNull
+    public int[] canonicalize(@NotNull int[][] board) {
+        if (board.length != DIMENSION) {
+            throw new IllegalArgumentException("Unsupported board size: " + board.length);
+        }
+        for (int row = 0; row < DIMENSION; row++) {
+            for (int col = 0; col < DIMENSION; col++) {
+                transposed[col][row] = board[row][col];
+            }
+        }
+        Arrays.fill(best, UNSET);
+        for (int[][] source : new int[][][]{board, transposed}) {
+            grid = source;
+            for (int[] order : COLUMN_ORDERS) {
+                columnOrder = order;
+                placeRow(0);
+            }
+        }
+        return best.clone();
+    }
+
+    // 64-bit hash of the canonical form - collisions are unlikely up to billions of puzzles
+    public long hash(@NotNull int[][] board) {
+        return hash(canonicalize(board), 0x9e3779b97f4a7c15L);
+    }
+
+    // 128-bit hash of the canonical form as two longs written into result
+    public void hash128(@NotNull int[][] board, @NotNull long[] result) {
+        int[] cells = canonicalize(board);
+        result[0] = hash(cells, 0x9e3779b97f4a7c15L);
+        result[1] = hash(cells, 0xc2b2ae3d27d4eb4fL);
+    }
+
+    // Try each unused row of the grid at the given position of the canonical form
+    // Rows that make the form larger than the best one are cut off right away
+    private void placeRow(int position) {
+        if (position == DIMENSION) {
+            return;
+        }
+        if (position % BAND == 0) { // First row of a band position - pick the band
+            for (int band = 0; band < BAND; band++) {
+                if (!isBandUsed[band]) {
+                    isBandUsed[band] = true;
+                    bandAt[position / BAND] = band;
+                    placeRowOfBand(position);
+                    isBandUsed[band] = false;
+                }
+            }
+        }
+        else {
+            placeRowOfBand(position);
+        }
+    }
+
+    private void placeRowOfBand(int position) {
+        int firstRow = bandAt[position / BAND] * BAND;
+        for (int row = firstRow; row < firstRow + BAND; row++) {
+            if (isRowUsed[row]) {
+                continue;
+            }
+            int mark = labelCount;
+            if (compareRow(grid[row], position)) {
+                isRowUsed[row] = true;
+                placeRow(position + 1);
+                isRowUsed[row] = false;
+            }
+            while (labelCount > mark) { // Forget the labels given by this row
+                label[labeled[--labelCount]] = 0;
+            }
+        }
+    }
+
+    // Label a grid row, in column order, placed at the given position and compare it with that row of the best form
+    // A smaller row replaces the rest of the best form, which the search then fills in
+    // Return false if the row is larger than the best form
+    private boolean compareRow(@NotNull int[] row, int position) {
+        int offset = position * DIMENSION;
+        for (int col = 0; col < DIMENSION; col++) {
+            int value = labelOf(row[columnOrder[col]]);
+            int bestValue = best[offset + col];
+            if (value > bestValue) {
+                return false;
+            }
+            if (value < bestValue) {
+                best[offset + col] = value;
+                for (int rest = col + 1; rest < DIMENSION; rest++) {
+                    best[offset + rest] = labelOf(row[columnOrder[rest]]);
+                }
+                Arrays.fill(best, offset + DIMENSION, CELL_COUNT, UNSET);
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private int labelOf(int digit) {
+        if (digit == 0) {
+            return 0;
+        }
+        if (label[digit] == 0) {
+            labeled[labelCount++] = digit;
+            label[digit] = labelCount;
+        }
+        return label[digit];
+    }
+
+    // Cells packed 16 to a long, mixed with the given multiplier
+    private static long hash(@NotNull int[] cells, long multiplier) {
+        long hash = multiplier;
+        for (int start = 0; start < CELL_COUNT; start += 16) {
+            long word = 0;
+            for (int cell = start; cell < Math.min(CELL_COUNT, start + 16); cell++) {
+                word = word << 4 | cells[cell];
+            }
+            hash = mix((hash ^ word) * multiplier);
+        }
+        return mix(hash);
+    }
+
+    // Finalizer of MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    // All 6^4 line orders that keep bands together
+    @NotNull
+    private static int[][] lineOrders() {
+        int[][] permutations = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        int[][] orders = new int[1296][];
+        int count = 0;
+        for (int[] bands : permutations) {
+            for (int[] first : permutations) {
+                for (int[] second : permutations) {
+                    for (int[] third : permutations) {
+                        int[][] inside = {first, second, third};
+                        int[] order = new int[DIMENSION];
+                        for (int band = 0; band < BAND; band++) {
+                            for (int i = 0; i < BAND; i++) {
+                                order[band * BAND + i] = bands[band] * BAND + inside[band][i];
+                            }
+                        }
+                        orders[count++] = order;
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,287 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+// Exact cover solver (Knuth's Algorithm X with dancing links)
+// The matrix of every (cell, digit) choice is built once in the constructor.
+// Givens are covered before a search and uncovered after it, so the matrix is reused between calls.
+public class DancingLinksSolver implements SolutionCounter {
+    private final int BOARD_SIZE; // Board column/row amount
+    private final int SUBSECTION_SIZE; // Sub-grid column/row amount
+    private final int CELL_COUNT; // Cell amount
+    private final int NO_VALUE = 0; // Empty value of a cell
+    private final int SOLUTION_LIMIT = 2; // solve() only needs to tell unique from multiple solutions
+
+    // Constraint columns: cell filled, digit in row, digit in column, digit in sub-grid
+    private final int COLUMN_COUNT;
+    private final int ROW_COUNT; // One matrix row per (cell, digit) choice
+    private final int NODES_PER_ROW = 4;
+    private final int ROOT; // Header of the column list
+    private final int FIRST_ROW_NODE;
+
+    // Links of the column headers, the root and the row nodes
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column; // Column header of each node
+    private final int[] columnSize; // Rows left in each column
+    private final boolean[] covered;
+
+    // Columns covered by givens, uncovered in reverse order after a search
+    private final int[] givenCovers;
+    private int givenCoverCount = 0;
+
+    // Explicit search stack - the row chosen at each level
+    private final int[] chosenRows;
+    private long nodeCount = 0; // Search levels entered since the solver was created
+    private long backtrackCount = 0; // Returns to a previous level since the solver was created
+
+    public DancingLinksSolver() {
+        this(9);
+    }
+
+    public DancingLinksSolver(int dimension) {
+        BOARD_SIZE = dimension;
+        SUBSECTION_SIZE = (int) Math.sqrt(dimension);
+        if (SUBSECTION_SIZE * SUBSECTION_SIZE != dimension) {
+            throw new IllegalArgumentException("Unsupported board size: " + dimension);
+        }
+        CELL_COUNT = BOARD_SIZE * BOARD_SIZE;
+        COLUMN_COUNT = 4 * CELL_COUNT;
+        ROW_COUNT = CELL_COUNT * BOARD_SIZE;
+        ROOT = COLUMN_COUNT;
+        FIRST_ROW_NODE = COLUMN_COUNT + 1;
+        columnSize = new int[COLUMN_COUNT];
+        covered = new boolean[COLUMN_COUNT];
+        givenCovers = new int[COLUMN_COUNT];
+        chosenRows = new int[CELL_COUNT + 1];
+
+        int nodeCount = FIRST_ROW_NODE + ROW_COUNT * NODES_PER_ROW;
+        left = new int[nodeCount];
+        right = new int[nodeCount];
+        up = new int[nodeCount];
+        down = new int[nodeCount];
+        column = new int[nodeCount];
+
+        // Column headers form a circular list around the root
+        for (int c = 0; c <= ROOT; c++) {
+            left[c] = c == 0 ? ROOT : c - 1;
+            right[c] = c == ROOT ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        // Each (cell, digit) row satisfies four constraints
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int row = cell / BOARD_SIZE;
+            int col = cell % BOARD_SIZE;
+            int box = (row / SUBSECTION_SIZE) * SUBSECTION_SIZE + col / SUBSECTION_SIZE;
+            for (int digit = 0; digit < BOARD_SIZE; digit++) {
+                int first = rowNode(cell, digit);
+                linkNode(first, cell);
+                linkNode(first + 1, CELL_COUNT + row * BOARD_SIZE + digit);
+                linkNode(first + 2, 2 * CELL_COUNT + col * BOARD_SIZE + digit);
+                linkNode(first + 3, 3 * CELL_COUNT + box * BOARD_SIZE + digit);
+                for (int k = 0; k < NODES_PER_ROW; k++) {
+                    left[first + k] = first + (k + NODES_PER_ROW - 1) % NODES_PER_ROW;
+                    right[first + k] = first + (k + 1) % NODES_PER_ROW;
+                }
+            }
+        }
+    }
+
+    // First node of the matrix row of a (cell, digit) choice
+    private int rowNode(int cell, int digit) {
+        return FIRST_ROW_NODE + (cell * BOARD_SIZE + digit) * NODES_PER_ROW;
+    }
+
+    // Append a node to the bottom of a column
+    private void linkNode(int node, int c) {
+        column[node] = c;
+        up[node] = up[c];
+        down[node] = c;
+        down[up[c]] = node;
+        up[c] = node;
+        columnSize[c]++;
+    }
+
+    // Solve a given Sudoku board
+    // Return solution count, 2 meaning multiple solutions
+    // The given board is not modified
+    public int solve(@NotNull int[][] board) {
+        return countSolutions(board, SOLUTION_LIMIT);
+    }
+
+    @Override
+    public int countSolutions(@NotNull int[][] board, int limit) {
+        int solutions = 0;
+        if (coverGivens(board)) {
+            solutions = search(limit);
+        }
+        uncoverGivens();
+        return solutions;
+    }
+
+    @Override
+    public boolean hasSolutionWithout(@NotNull int[][] board, int row, int col, int value) {
+        int first = rowNode(row * BOARD_SIZE + col, value - 1);
+        for (int k = 0; k < NODES_PER_ROW; k++) { // Take the choice out of the matrix
+            int node = first + k;
+            down[up[node]] = down[node];
+            up[down[node]] = up[node];
+            columnSize[column[node]]--;
+        }
+        boolean found = countSolutions(board, 1) > 0;
+        for (int k = NODES_PER_ROW - 1; k >= 0; k--) { // Put it back
+            int node = first + k;
+            columnSize[column[node]]++;
+            down[up[node]] = node;
+            up[down[node]] = node;
+        }
+        return found;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    // Cover the constraints satisfied by the givens
+    // Return false if two givens satisfy the same constraint
+    private boolean coverGivens(@NotNull int[][] board) {
+        givenCoverCount = 0;
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int value = board[cell / BOARD_SIZE][cell % BOARD_SIZE];
+            if (value == NO_VALUE) {
+                continue;
+            }
+            int first = rowNode(cell, value - 1);
+            for (int k = 0; k < NODES_PER_ROW; k++) {
+                if (covered[column[first + k]]) { // Constraint already satisfied by another given
+                    return false;
+                }
+            }
+            for (int k = 0; k < NODES_PER_ROW; k++) {
+                int c = column[first + k];
+                cover(c);
+                givenCovers[givenCoverCount++] = c;
+            }
+        }
+        return true;
+    }
+
+    // Restore the matrix to its full state
+    private void uncoverGivens() {
+        while (givenCoverCount > 0) {
+            uncover(givenCovers[--givenCoverCount]);
+        }
+    }
+
+    // Algorithm X: count exact covers of the remaining columns, stopping at the limit
+    // Depth-first search over an explicit stack of chosen rows
+    private int search(int limit) {
+        int solutions = 0;
+        int level = 0;
+        boolean entering = true; // A new level must be opened
+        while (true) {
+            if (entering) {
+                nodeCount++;
+                boolean deadEnd = true;
+                if (right[ROOT] == ROOT) { // Every constraint satisfied
+                    solutions++;
+                }
+                else {
+                    int c = chooseColumn();
+                    if (columnSize[c] > 0) { // Branch on the rows of the column
+                        cover(c);
+                        chosenRows[level] = down[c];
+                        deadEnd = false;
+                    }
+                }
+                if (deadEnd) {
+                    if (level == 0) {
+                        return solutions;
+                    }
+                    level--; // Return to the previous level and move to its next row
+                    backtrackCount++;
+                    int r = chosenRows[level];
+                    uncoverRow(r);
+                    chosenRows[level] = down[r];
+                }
+            }
+
+            int r = chosenRows[level];
+            if (r < FIRST_ROW_NODE || solutions >= limit) { // Back at the column header or done
+                uncover(column[r]);
+                if (level == 0) {
+                    return solutions;
+                }
+                level--; // Return to the previous level and move to its next row
+                backtrackCount++;
+                int previous = chosenRows[level];
+                uncoverRow(previous);
+                chosenRows[level] = down[previous];
+                entering = false;
+                continue;
+            }
+            for (int j = right[r]; j != r; j = right[j]) { // Choose the row
+                cover(column[j]);
+            }
+            level++;
+            entering = true;
+        }
+    }
+
+    // Undo choosing a row
+    private void uncoverRow(int r) {
+        for (int j = left[r]; j != r; j = left[j]) {
+            uncover(column[j]);
+        }
+    }
+
+    // Column with the fewest rows left
+    private int chooseColumn() {
+        int best = right[ROOT];
+        for (int c = right[best]; c != ROOT && columnSize[best] > 1; c = right[c]) {
+            if (columnSize[c] < columnSize[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // Remove a column and every row that satisfies it
+    private void cover(int c) {
+        covered[c] = true;
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                columnSize[column[j]]--;
+            }
+        }
+    }
+
+    // Undo cover() of a column
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                columnSize[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+        covered[c] = false;
+    }
+}
@@ -0,0 +1,7 @@
+package fi.virri.game.sudoku.generator;
+
+// How the generator builds the solution grid before digging
+public enum FillStrategy {
+    BACKTRACKING, // Random diagonal sub-grids completed by the solver
+    TRANSFORM // Random validity-preserving transform of a cached seed grid - GridTransformer
+}
@@ -0,0 +1,124 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+// Outcome and cost of one Sudoku.generate call, or of Sudoku.filled and dig
+// The cost counters add up over the boards the generator threw away. Sudoku updates them in place while it
+// works, so instrumenting a generation allocates nothing per step.
+public class GenerationReport {
+    private int emptyCount = 0; // Empty cells in the returned puzzle
+    private int clueCount = 0; // Digits left in the returned puzzle
+    private boolean isTargetReached = false; // At least the requested amount of digits was removed and the tier reached
+    private int tier = 0; // Grade tier of the returned puzzle, 0 if no target tier was set
+    private long work = 0; // Uniqueness checks plus solver search nodes
+    private long elapsedNanos = 0;
+    private int regenerations = 0; // Filled boards thrown away by the unbounded generator
+    private int backtracks = 0; // Removals undone by the bounded generator
+
+    // Cost breakdown - updated by Sudoku
+    long fillNanos = 0; // Building solution grids
+    long digNanos = 0; // Removing digits, grading included
+    long gradeNanos = 0; // Grading removals against the target tier
+    long searchNodes = 0; // Solver search nodes while filling and digging
+    long searchBacktracks = 0; // Solver returns from dead ends while filling and digging
+    long uniquenessSearches = 0; // Removals that needed a solver search
+    long provedBySingles = 0; // Removals proved unique without a search
+    long boxChecks = 0; // Sub-grid checks for a random digit while filling the diagonal
+
+    GenerationReport() {
+    }
+
+    // Set the outcome once the puzzle is ready
+    void finish(int emptyCount, int clueCount, boolean isTargetReached, int tier, long work,
+                long elapsedNanos, int regenerations, int backtracks) {
+        this.emptyCount = emptyCount;
+        this.clueCount = clueCount;
+        this.isTargetReached = isTargetReached;
+        this.tier = tier;
+        this.work = work;
+        this.elapsedNanos = elapsedNanos;
+        this.regenerations = regenerations;
+        this.backtracks = backtracks;
+    }
+
+    // Add the search counters of a solver created for one step
+    void addSearch(@NotNull SolutionCounter solver) {
+        searchNodes += solver.getNodeCount();
+        searchBacktracks += solver.getBacktrackCount();
+    }
+
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    public int getClueCount() {
+        return clueCount;
+    }
+
+    public boolean isTargetReached() {
+        return isTargetReached;
+    }
+
+    public int getTier() {
+        return tier;
+    }
+
+    public long getWork() {
+        return work;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int getRegenerations() {
+        return regenerations;
+    }
+
+    public int getBacktracks() {
+        return backtracks;
+    }
+
+    public long getFillNanos() {
+        return fillNanos;
+    }
+
+    public long getDigNanos() {
+        return digNanos;
+    }
+
+    public long getGradeNanos() {
+        return gradeNanos;
+    }
+
+    public long getSearchNodes() {
+        return searchNodes;
+    }
+
+    public long getSearchBacktracks() {
+        return searchBacktracks;
+    }
+
+    public long getUniquenessSearches() {
+        return uniquenessSearches;
+    }
+
+    public long getProvedBySingles() {
+        return provedBySingles;
+    }
+
+    public long getBoxChecks() {
+        return boxChecks;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return clueCount + " clues" + (tier == 0 ? "" : ", tier " + tier) + (isTargetReached ? "" : " (target missed)")
+                + ", work " + work + ", " + elapsedNanos / 1000 + " us"
+                + " (fill " + fillNanos / 1000 + " us, dig " + digNanos / 1000 + " us, grade " + gradeNanos / 1000
+                + " us), regenerations " + regenerations + ", backtracks " + backtracks
+                + ", search nodes " + searchNodes + ", search backtracks " + searchBacktracks
+                + ", searches " + uniquenessSearches + ", singles " + provedBySingles + ", box checks " + boxChecks;
+    }
+}
@@ -0,0 +1,120 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+// Histograms of generation reports per difficulty, for spotting slow tails and regressions
+// Thread safe - generator threads record while another thread reads
+public class GenerationStats {
+    // Report values that get a histogram each
+    public enum Metric {
+        ELAPSED_NANOS,
+        FILL_NANOS,
+        DIG_NANOS,
+        GRADE_NANOS,
+        REGENERATIONS,
+        SEARCH_NODES,
+        SEARCH_BACKTRACKS,
+        UNIQUENESS_SEARCHES,
+        PROVED_BY_SINGLES, // Searches avoided - the sum over a difficulty is its total
+        CLUES;
+
+        long of(@NotNull GenerationReport report) {
+            switch (this) {
+                case ELAPSED_NANOS:
+                    return report.getElapsedNanos();
+                case FILL_NANOS:
+                    return report.getFillNanos();
+                case DIG_NANOS:
+                    return report.getDigNanos();
+                case GRADE_NANOS:
+                    return report.getGradeNanos();
+                case REGENERATIONS:
+                    return report.getRegenerations();
+                case SEARCH_NODES:
+                    return report.getSearchNodes();
+                case SEARCH_BACKTRACKS:
+                    return report.getSearchBacktracks();
+                case UNIQUENESS_SEARCHES:
+                    return report.getUniquenessSearches();
+                case PROVED_BY_SINGLES:
+                    return report.getProvedBySingles();
+                default:
+                    return report.getClueCount();
+            }
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    private final Histogram[][] histograms = new Histogram[PuzzlePool.HARD + 1][METRICS.length]; // Indexed by difficulty, metric
+
+    public GenerationStats() {
+        for (Histogram[] byMetric : histograms) {
+            for (int i = 0; i < byMetric.length; i++) {
+                byMetric[i] = new Histogram();
+            }
+        }
+    }
+
+    // Add a finished generation - difficulty 0 for puzzles without a target tier
+    public synchronized void record(int difficulty, @NotNull GenerationReport report) {
+        Histogram[] byMetric = byDifficulty(difficulty);
+        for (Metric metric : METRICS) {
+            byMetric[metric.ordinal()].record(metric.of(report));
+        }
+    }
+
+    // Copy of the histogram of a metric
+    @NotNull
+    public synchronized Histogram get(int difficulty, @NotNull Metric metric) {
+        Histogram copy = new Histogram();
+        copy.add(byDifficulty(difficulty)[metric.ordinal()]);
+        return copy;
+    }
+
+    public synchronized long getCount(int difficulty) {
+        return byDifficulty(difficulty)[0].getCount();
+    }
+
+    @NotNull
+    private Histogram[] byDifficulty(int difficulty) {
+        if (difficulty < 0 || difficulty > PuzzlePool.HARD) {
+            throw new IllegalArgumentException("Unexpected difficulty: " + difficulty);
+        }
+        return histograms[difficulty];
+    }
+
+    // One line per difficulty with generations: p50/p99/max of the times, p50/p99 of the counts
+    @NotNull
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int difficulty = 0; difficulty <= PuzzlePool.HARD; difficulty++) {
+            Histogram[] byMetric = histograms[difficulty];
+            if (byMetric[0].getCount() == 0) {
+                continue;
+            }
+            if (builder.length() > 0) {
+                builder.append('\n');
+            }
+            builder.append("difficulty ").append(difficulty).append(": ").append(byMetric[0].getCount())
+                    .append(" puzzles");
+            for (Metric metric : METRICS) {
+                Histogram histogram = byMetric[metric.ordinal()];
+                String name = metric.name().toLowerCase(Locale.ROOT).replace('_', ' ');
+                if (name.endsWith(" nanos")) {
+                    builder.append(String.format(Locale.ROOT, ", %s ms p50 %.1f p99 %.1f max %.1f",
+                            name.substring(0, name.length() - 6), histogram.percentile(0.5) / 1e6,
+                            histogram.percentile(0.99) / 1e6, histogram.getMax() / 1e6));
+                }
+                else {
+                    builder.append(", ").append(name).append(" p50 ").append(histogram.percentile(0.5))
+                            .append(" p99 ").append(histogram.percentile(0.99));
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
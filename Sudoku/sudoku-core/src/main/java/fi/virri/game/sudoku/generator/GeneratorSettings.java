@@ -0,0 +1,73 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+// Options of Sudoku.generate
+public class GeneratorSettings {
+    private SolverEngine engine = SolverEngine.BITMASK; // Engine used for uniqueness checks
+    private FillStrategy fillStrategy = FillStrategy.BACKTRACKING; // How the solution grid is built
+    private boolean isParallel = false; // Test candidate removals on several threads
+    private long maxWork = 0; // Work budget in uniqueness checks plus solver nodes, 0 for unlimited
+    private long maxMillis = 0; // Time budget, 0 for unlimited
+    private int targetTier = 0; // Lowest grade tier the puzzle must reach (Grade.EASY to Grade.HARD), 0 for any
+
+    @NotNull
+    public SolverEngine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(@NotNull SolverEngine engine) {
+        this.engine = engine;
+    }
+
+    @NotNull
+    public FillStrategy getFillStrategy() {
+        return fillStrategy;
+    }
+
+    public void setFillStrategy(@NotNull FillStrategy fillStrategy) {
+        this.fillStrategy = fillStrategy;
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        isParallel = parallel;
+    }
+
+    public long getMaxWork() {
+        return maxWork;
+    }
+
+    public void setMaxWork(long maxWork) {
+        this.maxWork = maxWork;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    public int getTargetTier() {
+        return targetTier;
+    }
+
+    // Digging goes on past the empty cell count until the tier is reached and may end in a harder tier.
+    // Below Grade.HARD the puzzle stays solvable by the techniques of the grader, a hard puzzle may need guessing.
+    public void setTargetTier(int targetTier) {
+        if (targetTier < 0 || targetTier > Grade.HARD) {
+            throw new IllegalArgumentException("Unexpected tier: " + targetTier);
+        }
+        this.targetTier = targetTier;
+    }
+
+    // With a budget, generation keeps one filled board and returns the best puzzle found within the budget
+    public boolean isBounded() {
+        return maxWork > 0 || maxMillis > 0;
+    }
+}
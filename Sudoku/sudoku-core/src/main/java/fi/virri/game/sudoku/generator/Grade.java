@@ -0,0 +1,58 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// Result of grading a puzzle with the Grader
+public class Grade {
+    public static final int EASY = 1;
+    public static final int MEDIUM = 2;
+    public static final int HARD = 3;
+    public static final int UNSOLVED = 4; // The techniques of the Grader are not enough - needs guessing
+
+    private final Technique hardest; // Hardest technique needed, null if the board was already full
+    private final boolean isSolved; // Techniques alone filled the board
+    private final int[] techniqueCounts; // Steps taken with each technique, indexed by ordinal
+
+    Grade(@Nullable Technique hardest, boolean isSolved, @NotNull int[] techniqueCounts) {
+        this.hardest = hardest;
+        this.isSolved = isSolved;
+        this.techniqueCounts = techniqueCounts;
+    }
+
+    // Difficulty tier of the puzzle, UNSOLVED if it needs more than the known techniques
+    public int getTier() {
+        if (!isSolved) {
+            return UNSOLVED;
+        }
+        return hardest == null ? 0 : hardest.getTier();
+    }
+
+    @Nullable
+    public Technique getHardest() {
+        return hardest;
+    }
+
+    public boolean isSolved() {
+        return isSolved;
+    }
+
+    public int getCount(@NotNull Technique technique) {
+        return techniqueCounts[technique.ordinal()];
+    }
+
+    // Steps taken to solve the puzzle
+    public int getSteps() {
+        int steps = 0;
+        for (int count : techniqueCounts) {
+            steps += count;
+        }
+        return steps;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "tier " + getTier() + (hardest == null ? "" : ", hardest " + hardest) + ", steps " + getSteps();
+    }
+}
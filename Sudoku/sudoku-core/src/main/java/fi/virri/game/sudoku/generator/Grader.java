@@ -0,0 +1,568 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+// Grades a puzzle by solving it the way a person would
+// Each step applies the simplest technique that makes progress, then the next step starts again from the simplest.
+// The tier of the hardest technique needed is the difficulty of the puzzle.
+// Candidates are bitmasks and nothing is allocated per step, so grading can run inside the digging loop.
+public class Grader {
+    private static final Technique[] TECHNIQUES = Technique.values();
+
+    private final int MAX_BOARD_SIZE = 25; // Candidates of a cell must fit into an int bitmask
+    private final int BOARD_SIZE; // Board column/row amount
+    private final int SUBSECTION_SIZE; // Sub-grid column/row amount
+    private final int CELL_COUNT; // Cell amount
+    private final int HOUSE_COUNT; // Rows, columns and sub-grids
+    private final int NO_VALUE = 0; // Empty value of a cell
+    private final int ALL_DIGITS; // Candidate mask with every digit set
+
+    // Lookup tables - houses are numbered like in SudokuSolver: rows, then columns, then sub-grids
+    private final int[] rowHouse; // House index of the row of a cell
+    private final int[] colHouse; // House index of the column of a cell
+    private final int[] boxHouse; // House index of the sub-grid of a cell
+    private final int[][] houseCells; // Cells of each house
+
+    // Grading state - reused between calls
+    private final int[] values; // Digit of each cell, NO_VALUE if empty
+    private final int[] candidates; // Digits an empty cell can still take, 0 for filled cells
+    private final int[] houseUsed; // Bitmask of the givens of each house
+    private final int[] positions; // Indexes inside the current house where each digit can go
+    private final int[] subsetMembers; // Cells or digits that can be part of a naked or hidden subset
+    private final int[] cellHouses = new int[3]; // Row, column and sub-grid of a cell when marking hint reasons
+    private final int[] techniqueCounts = new int[TECHNIQUES.length];
+    private int emptyCount;
+
+    // Hint search state - steps mark the cells that justify them
+    private boolean isRecording = false;
+    private final boolean[] isReason;
+    private int stepCell; // Cell filled by the latest single
+    private int stepHouse; // House of the latest hidden single
+
+    public Grader() {
+        this(9);
+    }
+
+    public Grader(int dimension) {
+        BOARD_SIZE = dimension;
+        SUBSECTION_SIZE = (int) Math.sqrt(dimension);
+        if (SUBSECTION_SIZE * SUBSECTION_SIZE != dimension || dimension > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + dimension);
+        }
+        CELL_COUNT = BOARD_SIZE * BOARD_SIZE;
+        HOUSE_COUNT = 3 * BOARD_SIZE;
+        ALL_DIGITS = (1 << BOARD_SIZE) - 1;
+
+        rowHouse = new int[CELL_COUNT];
+        colHouse = new int[CELL_COUNT];
+        boxHouse = new int[CELL_COUNT];
+        houseCells = new int[HOUSE_COUNT][BOARD_SIZE];
+        values = new int[CELL_COUNT];
+        candidates = new int[CELL_COUNT];
+        houseUsed = new int[HOUSE_COUNT];
+        positions = new int[BOARD_SIZE];
+        subsetMembers = new int[BOARD_SIZE];
+        isReason = new boolean[CELL_COUNT];
+
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                int cell = row * BOARD_SIZE + col;
+                int box = (row / SUBSECTION_SIZE) * SUBSECTION_SIZE + col / SUBSECTION_SIZE;
+                int indexInBox = (row % SUBSECTION_SIZE) * SUBSECTION_SIZE + col % SUBSECTION_SIZE;
+                rowHouse[cell] = row;
+                colHouse[cell] = BOARD_SIZE + col;
+                boxHouse[cell] = 2 * BOARD_SIZE + box;
+                houseCells[row][col] = cell;
+                houseCells[BOARD_SIZE + col][row] = cell;
+                houseCells[2 * BOARD_SIZE + box][indexInBox] = cell;
+            }
+        }
+    }
+
+    // Grade a puzzle with every technique
+    // The given board is not modified
+    @NotNull
+    public Grade grade(@NotNull int[][] board) {
+        Technique hardest = solve(board, Grade.HARD);
+        return new Grade(hardest, emptyCount == 0, techniqueCounts.clone());
+    }
+
+    // Tier of a puzzle, stopping early once it is known to be above the given tier
+    // Return maxTier + 1 if the techniques up to maxTier can not solve the puzzle
+    public int tier(@NotNull int[][] board, int maxTier) {
+        Technique hardest = solve(board, maxTier);
+        if (emptyCount > 0) {
+            return maxTier + 1;
+        }
+        return hardest == null ? 0 : hardest.getTier();
+    }
+
+    // Next digit a player can place on a live board, found with every technique
+    // liveValues holds the digit of each cell and liveCandidates the digits each empty cell can take, kept up to date
+    // by the caller, so stepping starts from copies of them. The board must not contain mistakes.
+    // Return null if the techniques are not enough.
+    @Nullable
+    public Hint nextPlacement(@NotNull byte[] liveValues, @NotNull int[] liveCandidates, int liveEmptyCount) {
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            values[cell] = liveValues[cell];
+        }
+        System.arraycopy(liveCandidates, 0, candidates, 0, CELL_COUNT);
+        emptyCount = liveEmptyCount;
+        Arrays.fill(isReason, false);
+        isRecording = true;
+        try {
+            Technique hardest = null;
+            while (emptyCount > 0) {
+                Technique technique = step(Grade.HARD);
+                if (technique == null) {
+                    return null;
+                }
+                if (hardest == null || technique.ordinal() > hardest.ordinal()) {
+                    hardest = technique;
+                }
+                if (technique == Technique.NAKED_SINGLE || technique == Technique.HIDDEN_SINGLE) {
+                    markSingleReasons(technique);
+                    return new Hint(stepCell / BOARD_SIZE, stepCell % BOARD_SIZE, values[stepCell], hardest,
+                            reasonCells(), false);
+                }
+            }
+            return null;
+        }
+        finally {
+            isRecording = false;
+        }
+    }
+
+    // Mark the placed digits that leave the latest single as the only choice
+    // Candidates removed by earlier steps are already covered by the cells of those steps
+    private void markSingleReasons(@NotNull Technique technique) {
+        int bit = 1 << (values[stepCell] - 1);
+        if (technique == Technique.NAKED_SINGLE) { // Every other digit is seen by the cell
+            for (int other = ALL_DIGITS & ~bit; other != 0; other &= other - 1) {
+                markBlocker(stepCell, Integer.numberOfTrailingZeros(other) + 1);
+            }
+            return;
+        }
+        for (int cell : houseCells[stepHouse]) { // The digit is seen by every other empty cell of the house
+            if (cell != stepCell && values[cell] == NO_VALUE) {
+                markBlocker(cell, values[stepCell]);
+            }
+        }
+    }
+
+    // Mark a placed digit in a row, column or sub-grid of a cell
+    private void markBlocker(int cell, int value) {
+        cellHouses[0] = rowHouse[cell];
+        cellHouses[1] = colHouse[cell];
+        cellHouses[2] = boxHouse[cell];
+        for (int house : cellHouses) {
+            for (int peer : houseCells[house]) {
+                if (peer != stepCell && values[peer] == value) {
+                    isReason[peer] = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    // Mark cells of a step when searching for a hint
+    private void markReasons(int house, int indexes) {
+        if (isRecording) {
+            for (; indexes != 0; indexes &= indexes - 1) {
+                isReason[houseCells[house][Integer.numberOfTrailingZeros(indexes)]] = true;
+            }
+        }
+    }
+
+    // Mark the cells of a house that can take a digit when searching for a hint
+    private void markDigit(int house, int bit) {
+        if (isRecording) {
+            for (int cell : houseCells[house]) {
+                if ((candidates[cell] & bit) != 0) {
+                    isReason[cell] = true;
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private int[] reasonCells() {
+        int count = 0;
+        for (boolean reason : isReason) {
+            if (reason) {
+                count++;
+            }
+        }
+        int[] cells = new int[count];
+        count = 0;
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            if (isReason[cell]) {
+                cells[count++] = cell;
+            }
+        }
+        return cells;
+    }
+
+    // Apply techniques up to the given tier until the board is full or none of them helps
+    // Return the hardest technique used
+    private Technique solve(@NotNull int[][] board, int maxTier) {
+        Arrays.fill(techniqueCounts, 0);
+        if (!load(board)) { // Givens conflict - leave the board unsolved
+            return null;
+        }
+        Technique hardest = null;
+        while (emptyCount > 0) {
+            Technique technique = step(maxTier);
+            if (technique == null) {
+                break;
+            }
+            techniqueCounts[technique.ordinal()]++;
+            if (hardest == null || technique.ordinal() > hardest.ordinal()) {
+                hardest = technique;
+            }
+        }
+        return hardest;
+    }
+
+    // Copy the board and compute the candidates of the empty cells
+    // Return false if the givens break a row, column or sub-grid constraint
+    private boolean load(@NotNull int[][] board) {
+        Arrays.fill(houseUsed, 0);
+        emptyCount = 0;
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int value = board[cell / BOARD_SIZE][cell % BOARD_SIZE];
+            values[cell] = value;
+            if (value == NO_VALUE) {
+                emptyCount++;
+                continue;
+            }
+            int bit = 1 << (value - 1);
+            if (((houseUsed[rowHouse[cell]] | houseUsed[colHouse[cell]] | houseUsed[boxHouse[cell]]) & bit) != 0) {
+                return false;
+            }
+            houseUsed[rowHouse[cell]] |= bit;
+            houseUsed[colHouse[cell]] |= bit;
+            houseUsed[boxHouse[cell]] |= bit;
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            candidates[cell] = values[cell] != NO_VALUE ? 0
+                    : ~(houseUsed[rowHouse[cell]] | houseUsed[colHouse[cell]] | houseUsed[boxHouse[cell]]) & ALL_DIGITS;
+        }
+        return true;
+    }
+
+    // Apply the simplest technique up to the given tier that places a digit or removes a candidate
+    // Return the technique, null if none of them makes progress
+    private Technique step(int maxTier) {
+        for (Technique technique : TECHNIQUES) {
+            if (technique.getTier() > maxTier) {
+                return null;
+            }
+            if (apply(technique)) {
+                return technique;
+            }
+        }
+        return null;
+    }
+
+    private boolean apply(@NotNull Technique technique) {
+        switch (technique) {
+            case NAKED_SINGLE:
+                return nakedSingle();
+            case HIDDEN_SINGLE:
+                return hiddenSingle();
+            case POINTING:
+                return pointing();
+            case CLAIMING:
+                return claiming();
+            case NAKED_PAIR:
+                return nakedSubset(2);
+            case HIDDEN_PAIR:
+                return hiddenSubset(2);
+            case NAKED_TRIPLE:
+                return nakedSubset(3);
+            case HIDDEN_TRIPLE:
+                return hiddenSubset(3);
+            case X_WING:
+                return xWing(0, BOARD_SIZE) || xWing(BOARD_SIZE, 0);
+            default:
+                return false;
+        }
+    }
+
+    private boolean nakedSingle() {
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int mask = candidates[cell];
+            if (mask != 0 && (mask & (mask - 1)) == 0) {
+                place(cell, mask);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hiddenSingle() {
+        for (int house = 0; house < HOUSE_COUNT; house++) {
+            int once = 0;
+            int twice = 0;
+            for (int cell : houseCells[house]) {
+                twice |= once & candidates[cell];
+                once |= candidates[cell];
+            }
+            int singles = once & ~twice;
+            if (singles != 0) {
+                int bit = singles & -singles;
+                for (int cell : houseCells[house]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        stepHouse = house;
+                        place(cell, bit);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Sub-grid to line: a digit whose cells in a sub-grid share a row or column
+    private boolean pointing() {
+        for (int box = 2 * BOARD_SIZE; box < HOUSE_COUNT; box++) {
+            int digits = 0;
+            for (int cell : houseCells[box]) {
+                digits |= candidates[cell];
+            }
+            while (digits != 0) {
+                int bit = digits & -digits;
+                digits ^= bit;
+                int row = -1;
+                int col = -1;
+                for (int cell : houseCells[box]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        row = row == -1 || row == rowHouse[cell] ? rowHouse[cell] : -2;
+                        col = col == -1 || col == colHouse[cell] ? colHouse[cell] : -2;
+                    }
+                }
+                if ((row >= 0 && eliminateOutside(row, box, bit)) || (col >= 0 && eliminateOutside(col, box, bit))) {
+                    markDigit(box, bit);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Line to sub-grid: a digit whose cells in a row or column share a sub-grid
+    private boolean claiming() {
+        for (int line = 0; line < 2 * BOARD_SIZE; line++) {
+            int digits = 0;
+            for (int cell : houseCells[line]) {
+                digits |= candidates[cell];
+            }
+            while (digits != 0) {
+                int bit = digits & -digits;
+                digits ^= bit;
+                int box = -1;
+                for (int cell : houseCells[line]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        box = box == -1 || box == boxHouse[cell] ? boxHouse[cell] : -2;
+                    }
+                }
+                if (box >= 0 && eliminateOutside(box, line, bit)) {
+                    markDigit(line, bit);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Remove a digit from the cells of a house that are not in the other house
+    // Return true if some candidate was removed
+    private boolean eliminateOutside(int house, int otherHouse, int bit) {
+        boolean isChanged = false;
+        for (int cell : houseCells[house]) {
+            if ((candidates[cell] & bit) != 0
+                    && rowHouse[cell] != otherHouse && colHouse[cell] != otherHouse && boxHouse[cell] != otherHouse) {
+                candidates[cell] &= ~bit;
+                isChanged = true;
+            }
+        }
+        return isChanged;
+    }
+
+    // Naked subset: size cells of a house whose candidates together are size digits
+    // Those digits are removed from the other cells of the house
+    private boolean nakedSubset(int size) {
+        for (int house = 0; house < HOUSE_COUNT; house++) {
+            int memberCount = 0;
+            for (int i = 0; i < BOARD_SIZE; i++) {
+                int count = Integer.bitCount(candidates[houseCells[house][i]]);
+                if (count >= 2 && count <= size) {
+                    subsetMembers[memberCount++] = i;
+                }
+            }
+            for (int a = 0; a < memberCount; a++) {
+                for (int b = a + 1; b < memberCount; b++) {
+                    int pair = candidates[houseCells[house][subsetMembers[a]]] | candidates[houseCells[house][subsetMembers[b]]];
+                    if (size == 2) {
+                        if (Integer.bitCount(pair) == 2
+                                && eliminateNaked(house, pair, (1 << subsetMembers[a]) | (1 << subsetMembers[b]))) {
+                            return true;
+                        }
+                        continue;
+                    }
+                    for (int c = b + 1; c < memberCount; c++) {
+                        int triple = pair | candidates[houseCells[house][subsetMembers[c]]];
+                        if (Integer.bitCount(triple) == 3 && eliminateNaked(house, triple,
+                                (1 << subsetMembers[a]) | (1 << subsetMembers[b]) | (1 << subsetMembers[c]))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Remove the digits of a naked subset from the cells of the house outside the subset
+    private boolean eliminateNaked(int house, int digits, int subset) {
+        boolean isChanged = false;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            int cell = houseCells[house][i];
+            if ((subset & (1 << i)) == 0 && (candidates[cell] & digits) != 0) {
+                candidates[cell] &= ~digits;
+                isChanged = true;
+            }
+        }
+        if (isChanged) {
+            markReasons(house, subset);
+        }
+        return isChanged;
+    }
+
+    // Hidden subset: size digits of a house that fit only into the same size cells
+    // Other digits are removed from those cells
+    private boolean hiddenSubset(int size) {
+        for (int house = 0; house < HOUSE_COUNT; house++) {
+            Arrays.fill(positions, 0);
+            for (int i = 0; i < BOARD_SIZE; i++) {
+                int mask = candidates[houseCells[house][i]];
+                while (mask != 0) {
+                    int bit = mask & -mask;
+                    mask ^= bit;
+                    positions[Integer.numberOfTrailingZeros(bit)] |= 1 << i;
+                }
+            }
+            int memberCount = 0;
+            for (int digit = 0; digit < BOARD_SIZE; digit++) {
+                int count = Integer.bitCount(positions[digit]);
+                if (count >= 2 && count <= size) {
+                    subsetMembers[memberCount++] = digit;
+                }
+            }
+            for (int a = 0; a < memberCount; a++) {
+                for (int b = a + 1; b < memberCount; b++) {
+                    int pair = positions[subsetMembers[a]] | positions[subsetMembers[b]];
+                    if (size == 2) {
+                        if (Integer.bitCount(pair) == 2
+                                && restrictHidden(house, pair, (1 << subsetMembers[a]) | (1 << subsetMembers[b]))) {
+                            return true;
+                        }
+                        continue;
+                    }
+                    for (int c = b + 1; c < memberCount; c++) {
+                        int triple = pair | positions[subsetMembers[c]];
+                        if (Integer.bitCount(triple) == 3 && restrictHidden(house, triple,
+                                (1 << subsetMembers[a]) | (1 << subsetMembers[b]) | (1 << subsetMembers[c]))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Keep only the digits of a hidden subset in the cells of the subset
+    private boolean restrictHidden(int house, int subset, int digits) {
+        boolean isChanged = false;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            int cell = houseCells[house][i];
+            if ((subset & (1 << i)) != 0 && (candidates[cell] & ~digits) != 0) {
+                candidates[cell] &= digits;
+                isChanged = true;
+            }
+        }
+        if (isChanged) {
+            markReasons(house, subset);
+        }
+        return isChanged;
+    }
+
+    // X-Wing over base lines (rows or columns) and cover lines (the other direction)
+    // Index i of a base line lies on cover line coverStart + i, and index j of a cover line on base line baseStart + j
+    private boolean xWing(int baseStart, int coverStart) {
+        for (int digit = 0; digit < BOARD_SIZE; digit++) {
+            int bit = 1 << digit;
+            for (int first = 0; first < BOARD_SIZE; first++) {
+                int mask = lineMask(baseStart + first, bit);
+                if (Integer.bitCount(mask) != 2) {
+                    continue;
+                }
+                for (int second = first + 1; second < BOARD_SIZE; second++) {
+                    if (lineMask(baseStart + second, bit) != mask) {
+                        continue;
+                    }
+                    boolean isChanged = false;
+                    for (int covers = mask; covers != 0; covers &= covers - 1) {
+                        int cover = coverStart + Integer.numberOfTrailingZeros(covers);
+                        for (int j = 0; j < BOARD_SIZE; j++) {
+                            int cell = houseCells[cover][j];
+                            if (j != first && j != second && (candidates[cell] & bit) != 0) {
+                                candidates[cell] &= ~bit;
+                                isChanged = true;
+                            }
+                        }
+                    }
+                    if (isChanged) {
+                        markReasons(baseStart + first, mask);
+                        markReasons(baseStart + second, mask);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Indexes of a line where a digit can go
+    private int lineMask(int line, int bit) {
+        int mask = 0;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            if ((candidates[houseCells[line][i]] & bit) != 0) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    // Place the digit of a single candidate bit and remove it from the peers of the cell
+    private void place(int cell, int bit) {
+        stepCell = cell;
+        values[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+        candidates[cell] = 0;
+        emptyCount--;
+        for (int peer : houseCells[rowHouse[cell]]) {
+            candidates[peer] &= ~bit;
+        }
+        for (int peer : houseCells[colHouse[cell]]) {
+            candidates[peer] &= ~bit;
+        }
+        for (int peer : houseCells[boxHouse[cell]]) {
+            candidates[peer] &= ~bit;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Derives new solution grids from a few seed grids with transforms that keep a grid valid:
+// relabeling digits, swapping rows inside a band and columns inside a stack, swapping whole bands and stacks,
+// transposing and rotating. A new grid costs one pass over the cells and no search.
+public class GridTransformer {
+    private static final int SEED_COUNT = 8; // Seed grids per board size
+    private static final long SEED_GRID_SEED = 0x5eed5eedL; // Fixed, so transformed grids are reproducible from their seed
+    private static final ConcurrentHashMap<Integer, GridTransformer> BY_DIMENSION = new ConcurrentHashMap<>();
+
+    private final int dimension; // Number of columns/rows
+    private final int SRN; // Number of column/rows in a sub-grid
+    private final int[][][] seeds;
+
+    private GridTransformer(int dimension) {
+        this.dimension = dimension;
+        SRN = (int) Math.sqrt(dimension);
+        seeds = new int[SEED_COUNT][][];
+        SplittableRandom random = new SplittableRandom(SEED_GRID_SEED + dimension);
+        for (int i = 0; i < SEED_COUNT; i++) { // Seeds come from the backtracking fill
+            Sudoku seed = new Sudoku(dimension, new GeneratorSettings(), random);
+            seed.fillValues();
+            seeds[i] = seed.solvedBoard;
+        }
+    }
+
+    // Shared transformer of a board size - seeds are generated on first use
+    @NotNull
+    public static GridTransformer forDimension(int dimension) {
+        GridTransformer transformer = BY_DIMENSION.get(dimension);
+        if (transformer == null) {
+            BY_DIMENSION.putIfAbsent(dimension, new GridTransformer(dimension));
+            transformer = BY_DIMENSION.get(dimension);
+        }
+        return transformer;
+    }
+
+    // Write a new random solution grid into the given board
+    public void fill(@NotNull int[][] board, @NotNull SplittableRandom random) {
+        int[][] seed = seeds[random.nextInt(SEED_COUNT)];
+        int[] rowMap = randomLinePermutation(random); // Row of the seed used for each row
+        int[] colMap = randomLinePermutation(random); // Column of the seed used for each column
+        int[] digitMap = randomPermutation(dimension + 1, 1, random); // New label of each digit, 0 stays 0
+        boolean isTransposed = random.nextBoolean();
+        int quarterTurns = random.nextInt(4);
+
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                // Rotate clockwise by quarter turns: cell (r, c) comes from (n-1-c, r) of the previous turn
+                int r = row;
+                int c = col;
+                for (int turn = 0; turn < quarterTurns; turn++) {
+                    int previousRow = dimension - 1 - c;
+                    c = r;
+                    r = previousRow;
+                }
+                if (isTransposed) {
+                    int swap = r;
+                    r = c;
+                    c = swap;
+                }
+                board[row][col] = digitMap[seed[rowMap[r]][colMap[c]]];
+            }
+        }
+    }
+
+    // Line order that only swaps bands (stacks) and lines inside a band (stack)
+    @NotNull
+    private int[] randomLinePermutation(@NotNull SplittableRandom random) {
+        int[] bands = randomPermutation(SRN, 0, random);
+        int[] lines = new int[dimension];
+        for (int band = 0; band < SRN; band++) {
+            int[] inside = randomPermutation(SRN, 0, random);
+            for (int i = 0; i < SRN; i++) {
+                lines[band * SRN + i] = bands[band] * SRN + inside[i];
+            }
+        }
+        return lines;
+    }
+
+    // Identity of the first values followed by a random order of the rest (Fisher-Yates)
+    @NotNull
+    private int[] randomPermutation(int size, int fixedPrefix, @NotNull SplittableRandom random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for (int i = size - 1; i > fixedPrefix; i--) {
+            int j = fixedPrefix + random.nextInt(i - fixedPrefix + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+}
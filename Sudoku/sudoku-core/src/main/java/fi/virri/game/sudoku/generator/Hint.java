@@ -0,0 +1,62 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// Next step suggested by the HintEngine
+// Either a digit that can be placed by logic, or a digit entered by the player that breaks the solution
+public class Hint {
+    private final int row;
+    private final int col;
+    private final int digit; // Digit to place, or the wrong digit of a mistake
+    private final Technique technique; // Hardest technique needed to find the digit, null for a mistake
+    private final int[] reasonCells; // Cells (row * size + col) that justify the digit
+    private final boolean isMistake;
+
+    Hint(int row, int col, int digit, @Nullable Technique technique, @NotNull int[] reasonCells, boolean isMistake) {
+        this.row = row;
+        this.col = col;
+        this.digit = digit;
+        this.technique = technique;
+        this.reasonCells = reasonCells;
+        this.isMistake = isMistake;
+    }
+
+    // Digit entered by the player that breaks the solution
+    @NotNull
+    public static Hint mistake(int row, int col, int digit) {
+        return new Hint(row, col, digit, null, new int[0], true);
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getDigit() {
+        return digit;
+    }
+
+    @Nullable
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    @NotNull
+    public int[] getReasonCells() {
+        return reasonCells;
+    }
+
+    public boolean isMistake() {
+        return isMistake;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return (isMistake ? "mistake " : technique + " ") + digit + " at (" + row + ", " + col + ")";
+    }
+}
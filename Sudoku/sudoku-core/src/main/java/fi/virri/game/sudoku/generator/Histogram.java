@@ -0,0 +1,81 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+// Log-scale histogram of non-negative values such as durations in nanoseconds or search node counts
+// Every power of two is split into 8 buckets, so a percentile is off by at most 12.5 %
+// Not thread safe - record into one histogram per thread and add them together
+public class Histogram {
+    private static final int SUB_BUCKETS = 8; // Buckets per power of two
+    private static final int SUB_BITS = 3; // log2(SUB_BUCKETS)
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count = 0;
+    private long max = 0;
+    private long sum = 0;
+
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts[bucket(value)]++;
+        count++;
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    public void add(@NotNull Histogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+        sum += other.sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    // Total of the recorded values, e.g. the searches of every generation together
+    public long getSum() {
+        return sum;
+    }
+
+    // Upper bound of the value below which the given fraction (0-1) of the recorded values fall
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Values below SUB_BUCKETS get a bucket each, larger ones share a bucket with the values of the same top 4 bits
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        return (SUB_BUCKETS + bucket % SUB_BUCKETS) * width + width - 1;
+    }
+}
@@ -0,0 +1,104 @@
+package fi.virri.game.sudoku.generator;
+
+// Set of long values with open addressing and linear probing - no boxing, 8 bytes per slot
+// Grows at 3/4 load, so 50 million values fit in 512 MB
+// Not thread safe
+public class LongHashSet {
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long FREE = 0; // Marks a free slot - the value 0 itself is kept in hasZero
+
+    private long[] slots;
+    private int mask; // Slot count - 1, the slot count is a power of two
+    private int shift; // 64 - log2(slot count)
+    private int size = 0;
+    private int growAt; // Size that triggers the next resize
+    private boolean hasZero = false;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    // Sized so that the expected amount of values fits without resizing
+    public LongHashSet(int expectedSize) {
+        long capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many values: " + expectedSize);
+        }
+        allocate((int) capacity);
+    }
+
+    // Return true if the value was not in the set yet
+    public boolean add(long value) {
+        if (value == FREE) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int slot = slot(value);
+        while (slots[slot] != FREE) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = value;
+        if (++size >= growAt) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == FREE) {
+            return hasZero;
+        }
+        int slot = slot(value);
+        while (slots[slot] != FREE) {
+            if (slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Fibonacci hashing: the top bits of the product depend on every bit of the value
+    private int slot(long value) {
+        return (int) ((value * 0x9e3779b97f4a7c15L) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        growAt = capacity / 4 * 3;
+    }
+
+    private void resize() {
+        if (slots.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Set is full");
+        }
+        long[] old = slots;
+        allocate(old.length * 2);
+        for (long value : old) {
+            if (value != FREE) {
+                int slot = slot(value);
+                while (slots[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+// 64 bit identifier of a generated puzzle - Sudoku.fromPuzzleId builds the same puzzle again
+// Bits from the top: 3 bits sub-grid size, 1 bit fill strategy, 2 bits target tier, 10 bits empty cell target,
+// 48 bits seed. The engine and the digging mode do not change the puzzle, so they are not part of the ID.
+public final class PuzzleId {
+    public static final long SEED_MASK = (1L << 48) - 1; // Seeds are cut to the bits left in the ID
+    public static final long NONE = 0; // Puzzle of unknown origin, e.g. read from a PuzzleStore
+
+    private static final int SRN_SHIFT = 61;
+    private static final int FILL_STRATEGY_SHIFT = 60;
+    private static final int TIER_SHIFT = 58;
+    private static final int DIGITS_SHIFT = 48;
+    private static final int MAX_SRN = 5; // SudokuSolver supports boards up to 25x25
+    private static final int MAX_DIGITS_TO_REMOVE = 1023;
+
+    private PuzzleId() {
+    }
+
+    // Pack the inputs of a generate() call
+    public static long encode(int dimension, int digitsToRemove, @NotNull FillStrategy fillStrategy, int targetTier,
+                              long seed) {
+        int srn = (int) Math.sqrt(dimension);
+        if (srn * srn != dimension || srn > MAX_SRN) {
+            throw new IllegalArgumentException("Unsupported board size: " + dimension);
+        }
+        if (digitsToRemove < 0 || digitsToRemove > MAX_DIGITS_TO_REMOVE) {
+            throw new IllegalArgumentException("Unsupported empty cell count: " + digitsToRemove);
+        }
+        if (targetTier < 0 || targetTier > Grade.HARD) {
+            throw new IllegalArgumentException("Unexpected tier: " + targetTier);
+        }
+        return ((long) srn << SRN_SHIFT)
+                | ((long) fillStrategy.ordinal() << FILL_STRATEGY_SHIFT)
+                | ((long) targetTier << TIER_SHIFT)
+                | ((long) digitsToRemove << DIGITS_SHIFT)
+                | (seed & SEED_MASK);
+    }
+
+    // Board column/row amount of a puzzle
+    public static int getDimension(long puzzleId) {
+        int srn = (int) (puzzleId >>> SRN_SHIFT);
+        if (srn < 2) { // Includes NONE
+            throw new IllegalArgumentException("Invalid puzzle ID: " + Long.toHexString(puzzleId));
+        }
+        return srn * srn;
+    }
+
+    // Empty cell count the puzzle was generated for
+    public static int getDigitsToRemove(long puzzleId) {
+        return (int) ((puzzleId >>> DIGITS_SHIFT) & MAX_DIGITS_TO_REMOVE);
+    }
+
+    @NotNull
+    public static FillStrategy getFillStrategy(long puzzleId) {
+        return FillStrategy.values()[(int) ((puzzleId >>> FILL_STRATEGY_SHIFT) & 1)];
+    }
+
+    // Grade tier the puzzle was generated for, 0 for any
+    public static int getTargetTier(long puzzleId) {
+        return (int) ((puzzleId >>> TIER_SHIFT) & 3);
+    }
+
+    public static long getSeed(long puzzleId) {
+        return puzzleId & SEED_MASK;
+    }
+}
@@ -0,0 +1,256 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Ready puzzles for each difficulty, generated ahead of time on a low priority background thread
+// Starting a game takes a puzzle from the pool and only generates on demand if the pool is empty
+// With a PuzzleStore attached, the pool is filled from disk first and keeps a stock of puzzles there
+public class PuzzlePool {
+    public static final int EASY = 1;
+    public static final int MEDIUM = 2;
+    public static final int HARD = 3;
+
+    private static final int DIMENSION = 9; // Board column/row amount
+    private static final int CAPACITY = 3; // Ready puzzles kept in memory per difficulty
+    private static final int STORE_CAPACITY = 20; // Puzzles kept on disk per difficulty
+    private static final int[] DIGITS_TO_REMOVE = {0, 40, 45, 50}; // Minimum empty cell count, indexed by difficulty
+
+    private static PuzzlePool instance;
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic arrays can only be created raw
+    private final BlockingQueue<Sudoku>[] queues = new BlockingQueue[HARD + 1]; // Indexed by difficulty
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PuzzlePool");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY); // Never compete with the UI thread
+        return thread;
+    });
+    private final AtomicBoolean isRefillScheduled = new AtomicBoolean(false);
+    private volatile CancellationToken token = new CancellationToken();
+    private volatile PuzzleStore store; // Optional on-disk cache that survives restarts
+    private final LongHashSet seen = new LongHashSet(); // Canonical hashes of the puzzles handed out or queued
+    private final Canonicalizer canonicalizer = new Canonicalizer(); // Guarded by seen
+    private volatile GenerationStats stats; // Optional, receives the report of every generated puzzle
+
+    // Package-private for the tests, the app shares getInstance()
+    PuzzlePool() {
+        for (int difficulty = EASY; difficulty <= HARD; difficulty++) {
+            queues[difficulty] = new ArrayBlockingQueue<>(CAPACITY);
+        }
+    }
+
+    @NotNull
+    public static synchronized PuzzlePool getInstance() {
+        if (instance == null) {
+            instance = new PuzzlePool();
+        }
+        return instance;
+    }
+
+    // Empty cell count of a difficulty (1 for easy, 2 for medium, 3 for hard)
+    public static int digitsToRemove(int difficulty) {
+        if (difficulty < EASY || difficulty > HARD) {
+            throw new IllegalArgumentException("Unexpected difficulty: " + difficulty);
+        }
+        return DIGITS_TO_REMOVE[difficulty];
+    }
+
+    // Generator settings of a difficulty - the grade tier of the puzzle is at least the difficulty
+    @NotNull
+    public static GeneratorSettings settings(int difficulty) {
+        GeneratorSettings settings = new GeneratorSettings();
+        settings.setTargetTier(difficulty);
+        return settings;
+    }
+
+    // Use the given store as a persistent source and sink of puzzles
+    public void attachStore(@NotNull PuzzleStore store) {
+        this.store = store;
+    }
+
+    // Record the reports of the puzzles generated from now on, null to stop
+    public void setStats(@Nullable GenerationStats stats) {
+        this.stats = stats;
+    }
+
+    // Take a ready puzzle of the given difficulty
+    // Falls back to the store and then to generating on the calling thread if none is ready
+    @NotNull
+    public Sudoku take(int difficulty) {
+        return take(difficulty, new CancellationToken());
+    }
+
+    // Same as above, but a generation on the calling thread stops with CancellationException once the token is
+    // cancelled - e.g. when the screen waiting for the puzzle is closed
+    @NotNull
+    public Sudoku take(int difficulty, @NotNull CancellationToken takeToken) {
+        digitsToRemove(difficulty); // Throws for an unexpected difficulty
+        Sudoku sudoku = queues[difficulty].poll();
+        if (sudoku == null) {
+            sudoku = pollStore(difficulty);
+        }
+        refill(); // Replace the taken puzzle in the background
+        if (sudoku == null) { // The player is waiting - use every core, a single core only pays the batching cost
+            sudoku = generate(difficulty, takeToken, Runtime.getRuntime().availableProcessors() > 1);
+        }
+        return sudoku;
+    }
+
+    // Stop generating and move the ready puzzles to the store so they survive the process being killed
+    // Called when the app goes to the background - returns at once, the worker writes the store
+    // Return the pending drain, null if no store is attached
+    @Nullable
+    public Future<?> persist() {
+        PuzzleStore currentStore = store;
+        if (currentStore == null) {
+            return null;
+        }
+        cancel(); // Otherwise the worker would move them straight back into memory
+        // Queued behind the cancelled fill, so a puzzle it offers while stopping is still drained
+        return worker.submit(() -> drain(currentStore));
+    }
+
+    // Ready puzzles of the given difficulty
+    public int size(int difficulty) {
+        return queues[difficulty].size();
+    }
+
+    // Start filling the pool in the background unless already filling
+    public void refill() {
+        if (!isRefillScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (token.isCancelled()) {
+            token = new CancellationToken();
+        }
+        CancellationToken refillToken = token;
+        worker.execute(() -> fill(refillToken));
+    }
+
+    // Stop the running generation - e.g. when the process is under memory pressure
+    // Ready puzzles are kept, the pool is filled again on the next refill()
+    public void cancel() {
+        token.cancel();
+    }
+
+    // Fill the emptiest difficulty until every queue is full, then top up the store
+    private void fill(@NotNull CancellationToken refillToken) {
+        try {
+            while (!refillToken.isCancelled()) {
+                int difficulty = emptiestDifficulty();
+                if (difficulty != -1) { // Memory first - from disk if possible
+                    Sudoku sudoku = pollStore(difficulty);
+                    if (sudoku == null) {
+                        sudoku = generate(difficulty, refillToken, false);
+                    }
+                    queues[difficulty].offer(sudoku);
+                    continue;
+                }
+                PuzzleStore currentStore = store;
+                difficulty = emptiestStoredDifficulty(currentStore);
+                if (difficulty == -1) { // Every queue and the store are full
+                    break;
+                }
+                currentStore.append(difficulty, generate(difficulty, refillToken, false));
+            }
+        }
+        catch (CancellationException ignored) {
+            // Generation stopped by cancel()
+        }
+        finally {
+            isRefillScheduled.set(false);
+        }
+        if (!refillToken.isCancelled() && emptiestDifficulty() != -1) { // A puzzle was taken while finishing
+            refill();
+        }
+    }
+
+    // Move the ready puzzles to the store, runs on the worker
+    private void drain(@NotNull PuzzleStore currentStore) {
+        for (int difficulty = EASY; difficulty <= HARD; difficulty++) {
+            Sudoku sudoku;
+            while ((sudoku = queues[difficulty].poll()) != null) {
+                if (!currentStore.append(difficulty, sudoku)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Generate a puzzle of a difficulty that is not a relabeled, mirrored or shuffled copy of an earlier one
+    // Parallel digging is for a player waiting on the calling thread, the background fill stays on its one thread
+    @NotNull
+    private Sudoku generate(int difficulty, @NotNull CancellationToken generateToken, boolean isParallel) {
+        GeneratorSettings generateSettings = settings(difficulty);
+        generateSettings.setParallel(isParallel);
+        while (true) {
+            Sudoku sudoku = Sudoku.generate(DIMENSION, DIGITS_TO_REMOVE[difficulty], generateSettings,
+                    generateToken);
+            GenerationStats currentStats = stats;
+            if (currentStats != null) {
+                currentStats.record(difficulty, sudoku.getReport());
+            }
+            if (isNew(sudoku)) {
+                return sudoku;
+            }
+        }
+    }
+
+    // Record the puzzle, return false if an equivalent puzzle was seen before
+    // Package-private for the tests
+    boolean isNew(@NotNull Sudoku sudoku) {
+        synchronized (seen) {
+            return seen.add(canonicalizer.hash(sudoku.board));
+        }
+    }
+
+    // Oldest stored puzzle of a difficulty, null if none or no store is attached
+    private Sudoku pollStore(int difficulty) {
+        PuzzleStore currentStore = store;
+        Sudoku sudoku = currentStore == null ? null : currentStore.poll(difficulty);
+        if (sudoku != null) {
+            isNew(sudoku); // Generated ones must not repeat it
+        }
+        return sudoku;
+    }
+
+    // Difficulty with the fewest puzzles on disk, -1 if all are full or no store is attached
+    private int emptiestStoredDifficulty(PuzzleStore currentStore) {
+        if (currentStore == null) {
+            return -1;
+        }
+        int result = -1;
+        int fewest = STORE_CAPACITY;
+        for (int difficulty = EASY; difficulty <= HARD; difficulty++) {
+            int size = currentStore.size(difficulty);
+            if (size < fewest) {
+                fewest = size;
+                result = difficulty;
+            }
+        }
+        return result;
+    }
+
+    // Difficulty with the fewest ready puzzles, -1 if all are full
+    private int emptiestDifficulty() {
+        int result = -1;
+        int fewest = CAPACITY;
+        for (int difficulty = EASY; difficulty <= HARD; difficulty++) {
+            int size = queues[difficulty].size();
+            if (size < fewest) {
+                fewest = size;
+                result = difficulty;
+            }
+        }
+        return result;
+    }
+}
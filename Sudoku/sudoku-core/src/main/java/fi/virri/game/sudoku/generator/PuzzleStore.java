@@ -0,0 +1,216 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Persistent FIFO of generated 9x9 puzzles, one file per difficulty
+// File layout: 4 byte magic, 4 byte index of the next unread record, then fixed width records.
+// A record is 81 bytes: the high nibble is the puzzle digit of a cell (0 when empty) and the low nibble the solution digit.
+public class PuzzleStore implements Closeable {
+    private static final int DIMENSION = 9; // Only standard boards fit the 4 bit layout
+    private static final int CELL_COUNT = DIMENSION * DIMENSION;
+    private static final int MAGIC = 0x53554b31; // "SUK1"
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = CELL_COUNT;
+    private static final int MAX_DIFFICULTY = 3;
+    private static final int COMPACT_RECORDS = 16; // Consumed records that trigger a compaction
+
+    private final File directory;
+    private final FileChannel[] channels = new FileChannel[MAX_DIFFICULTY + 1]; // Opened on first use, indexed by difficulty
+    private final int[] heads = new int[MAX_DIFFICULTY + 1]; // Index of the next unread record
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    public PuzzleStore(@NotNull File directory) {
+        this.directory = directory;
+    }
+
+    // Append a puzzle to the end of the queue of a difficulty
+    // Return false if the puzzle could not be written
+    public synchronized boolean append(int difficulty, @NotNull Sudoku sudoku) {
+        if (sudoku.board.length != DIMENSION) {
+            throw new IllegalArgumentException("Only 9x9 boards can be stored");
+        }
+        record.clear();
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            int row = cell / DIMENSION;
+            int col = cell % DIMENSION;
+            record.put((byte) ((sudoku.board[row][col] << 4) | sudoku.solvedBoard[row][col]));
+        }
+        record.flip();
+        try {
+            FileChannel channel = channel(difficulty);
+            long position = HEADER_SIZE + (long) recordCount(channel) * RECORD_SIZE; // Over a partial record, if any
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            return true;
+        }
+        catch (IOException e) {
+            reset(difficulty);
+            return false;
+        }
+    }
+
+    // Remove and return the oldest puzzle of a difficulty
+    // Return null if none are stored
+    @Nullable
+    public synchronized Sudoku poll(int difficulty) {
+        try {
+            FileChannel channel = channel(difficulty);
+            int count = recordCount(channel);
+            if (heads[difficulty] >= count) {
+                return null;
+            }
+            record.clear();
+            long position = HEADER_SIZE + (long) heads[difficulty] * RECORD_SIZE;
+            while (record.hasRemaining()) {
+                int read = channel.read(record, position + record.position());
+                if (read < 0) {
+                    throw new IOException("Truncated record");
+                }
+            }
+            Sudoku sudoku = new Sudoku(DIMENSION);
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                int packed = record.get(cell) & 0xff;
+                int value = packed >>> 4;
+                int solution = packed & 0x0f;
+                if (solution < 1 || solution > DIMENSION || (value != 0 && value != solution)) {
+                    throw new IOException("Corrupt record");
+                }
+                sudoku.board[cell / DIMENSION][cell % DIMENSION] = value;
+                sudoku.solvedBoard[cell / DIMENSION][cell % DIMENSION] = solution;
+            }
+
+            heads[difficulty]++;
+            if (heads[difficulty] == count) { // Queue drained - drop the consumed records
+                channel.truncate(HEADER_SIZE);
+                heads[difficulty] = 0;
+            }
+            else if (heads[difficulty] >= COMPACT_RECORDS && heads[difficulty] >= count - heads[difficulty]) {
+                compact(channel, heads[difficulty], count); // The pool keeps the queue from draining
+                heads[difficulty] = 0;
+            }
+            writeHeader(channel, heads[difficulty]);
+            return sudoku;
+        }
+        catch (IOException e) {
+            reset(difficulty);
+            return null;
+        }
+    }
+
+    // Unread puzzles of a difficulty
+    public synchronized int size(int difficulty) {
+        try {
+            return recordCount(channel(difficulty)) - heads[difficulty];
+        }
+        catch (IOException e) {
+            reset(difficulty);
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (int difficulty = 0; difficulty <= MAX_DIFFICULTY; difficulty++) {
+            closeChannel(difficulty);
+        }
+    }
+
+    // Open the file of a difficulty and read its header
+    @NotNull
+    private FileChannel channel(int difficulty) throws IOException {
+        if (difficulty < 1 || difficulty > MAX_DIFFICULTY) {
+            throw new IllegalArgumentException("Unexpected difficulty: " + difficulty);
+        }
+        if (channels[difficulty] != null) {
+            return channels[difficulty];
+        }
+        FileChannel channel = new RandomAccessFile(file(difficulty), "rw").getChannel();
+        channels[difficulty] = channel;
+        header.clear();
+        channel.read(header, 0);
+        if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC) { // New or unreadable file
+            channel.truncate(0);
+            writeHeader(channel, 0);
+            heads[difficulty] = 0;
+        }
+        else {
+            heads[difficulty] = header.getInt(4);
+            if (heads[difficulty] < 0 || heads[difficulty] > recordCount(channel)) {
+                throw new IOException("Corrupt header");
+            }
+            long end = HEADER_SIZE + (long) recordCount(channel) * RECORD_SIZE;
+            if (channel.size() != end) { // Interrupted append - drop the partial record
+                channel.truncate(end);
+            }
+        }
+        return channel;
+    }
+
+    // Move the unread records to the front of the file and drop the rest
+    // At least as many records were consumed as are left, so the copy never overwrites a record it still has to read.
+    // A crash before the header is written leaves the old file valid; one before the truncate serves a few
+    // consumed puzzles again, which are still valid puzzles.
+    private void compact(@NotNull FileChannel channel, int head, int count) throws IOException {
+        ByteBuffer live = ByteBuffer.allocate((count - head) * RECORD_SIZE);
+        long position = HEADER_SIZE + (long) head * RECORD_SIZE;
+        while (live.hasRemaining()) {
+            if (channel.read(live, position + live.position()) < 0) {
+                throw new IOException("Truncated record");
+            }
+        }
+        live.flip();
+        while (live.hasRemaining()) {
+            channel.write(live, HEADER_SIZE + live.position());
+        }
+        writeHeader(channel, 0);
+        channel.truncate(HEADER_SIZE + (long) (count - head) * RECORD_SIZE);
+    }
+
+    // Records in a file, including the consumed ones before the head
+    private int recordCount(@NotNull FileChannel channel) throws IOException {
+        return (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    private void writeHeader(@NotNull FileChannel channel, int head) throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putInt(head).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    @NotNull
+    private File file(int difficulty) {
+        return new File(directory, "puzzles-" + difficulty + ".bin");
+    }
+
+    // Drop a broken file - the cache is rebuilt by the generator
+    private void reset(int difficulty) {
+        closeChannel(difficulty);
+        //noinspection ResultOfMethodCallIgnored
+        file(difficulty).delete();
+        heads[difficulty] = 0;
+    }
+
+    private void closeChannel(int difficulty) {
+        if (channels[difficulty] != null) {
+            try {
+                channels[difficulty].close();
+            }
+            catch (IOException ignored) {
+                // Nothing left to do with a broken channel
+            }
+            channels[difficulty] = null;
+        }
+    }
+}
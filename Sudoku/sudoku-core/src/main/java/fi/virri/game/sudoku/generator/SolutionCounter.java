@@ -0,0 +1,20 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+// Uniqueness check used by the generator - implemented by SudokuSolver and DancingLinksSolver
+public interface SolutionCounter {
+    // Count solutions of the given board, stopping when the limit is reached
+    // The given board is not modified
+    int countSolutions(@NotNull int[][] board, int limit);
+
+    // Check if the board has a solution where the given empty cell holds some other digit than value
+    // With a known solution holding value there, false means that solution is unique
+    boolean hasSolutionWithout(@NotNull int[][] board, int row, int col, int value);
+
+    // Search nodes visited by this solver since it was created - the unit of generation budgets
+    long getNodeCount();
+
+    // Returns from a dead end or exhausted branch to its parent since the solver was created
+    long getBacktrackCount();
+}
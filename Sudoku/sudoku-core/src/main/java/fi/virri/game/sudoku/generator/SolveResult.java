@@ -0,0 +1,9 @@
+package fi.virri.game.sudoku.generator;
+
+// Outcome of a solve with limits - SudokuSolver
+public enum SolveResult {
+    UNIQUE, // Exactly one solution
+    MULTIPLE, // More than one solution
+    UNSOLVABLE, // No solution or conflicting givens
+    GAVE_UP // Node budget or deadline ran out, or the search was cancelled, before the answer was known
+}
@@ -0,0 +1,18 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+// Engines the generator can use for its uniqueness checks
+public enum SolverEngine {
+    BITMASK, // Constraint propagation with bitmasks - SudokuSolver
+    DANCING_LINKS; // Exact cover with Algorithm X - DancingLinksSolver
+
+    // Create a new solver instance of this engine for boards with the given column/row amount
+    @NotNull
+    public SolutionCounter create(int dimension) {
+        if (this == DANCING_LINKS) {
+            return new DancingLinksSolver(dimension);
+        }
+        return new SudokuSolver(dimension);
+    }
+}
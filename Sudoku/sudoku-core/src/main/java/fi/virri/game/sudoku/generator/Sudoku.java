@@ -0,0 +1,621 @@
+package fi.virri.game.sudoku.generator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+public class Sudoku {
+    public int[][] board;
+    public int[][] solvedBoard;
+    private final int dimension; // Number of columns/rows
+    private final int SRN; // Number of column/rows in a sub-grid
+    private final GeneratorSettings settings; // Engine and digging mode
+    private final SplittableRandom random; // Source of every random choice - seeded for reproducible puzzles
+
+    // Digits left in each row/column/sub-grid while digging - updated on every removal
+    private final int[] rowUsed;
+    private final int[] colUsed;
+    private final int[] boxUsed;
+
+    private long work = 0; // Uniqueness checks plus solver search nodes spent on this board
+    private int backtracks = 0; // Removals undone by removeDigitsBounded
+    private GenerationReport report = new GenerationReport(); // Cost counters, outcome set by generate() or dig()
+    private long puzzleId = PuzzleId.NONE; // Set by generate()
+    private Grader grader; // Created when the settings have a target tier
+    private int tier = 0; // Grade tier of the board while digging toward a target tier
+
+    public Sudoku(int dimension) {
+        this(dimension, new GeneratorSettings());
+    }
+
+    public Sudoku(int dimension, GeneratorSettings settings) {
+        this(dimension, settings, new SplittableRandom());
+    }
+
+    Sudoku(int dimension, GeneratorSettings settings, SplittableRandom random) {
+        this.dimension = dimension;
+        this.settings = settings;
+        this.random = random;
+        SRN = (int) Math.sqrt(dimension);
+        if (SRN*SRN != dimension) {
+            throw new IllegalArgumentException("Unsupported board size: " + dimension);
+        }
+        board = new int[dimension][dimension];
+        solvedBoard = new int[dimension][dimension];
+        rowUsed = new int[dimension];
+        colUsed = new int[dimension];
+        boxUsed = new int[dimension];
+    }
+
+    // Random number generator
+    private int randomGenerator(int num)
+    {
+        return random.nextInt(num) + 1;
+    }
+
+    // Check in the sub-grid for existence of digit
+    private boolean unUsedInBox(int rowStart, int colStart, int num) {
+        report.boxChecks++;
+        for (int i = 0; i<SRN; i++){
+            for (int j = 0; j<SRN; j++){
+                if (board[rowStart+i][colStart+j]==num){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Fill a Sudoku board with digits using the fill strategy of the settings
+    // Package-private so that GridTransformer can build its seed grids
+    void fillValues() {
+        long startNanos = System.nanoTime();
+        if(settings.getFillStrategy() == FillStrategy.TRANSFORM){
+            GridTransformer.forDimension(dimension).fill(board, random);
+            for (int i = 0; i < dimension; i++) {
+                System.arraycopy(board[i], 0, solvedBoard[i], 0, dimension);
+            }
+        }
+        else{
+            do {
+                // Fill the diagonal of SRN x SRN matrices
+                fillDiagonal();
+
+                // Fill remaining blocks - on 4x4 boards some diagonals can not be completed
+            } while(!fillRemaining());
+        }
+        report.fillNanos += System.nanoTime() - startNanos;
+    }
+
+    // Fill all independent sub-grids with digits
+    private void fillDiagonal() {
+        for(int i = 0; i< dimension; i=i+SRN){
+            // for diagonal box, start coordinates->i==j
+            fillBox(i, i);
+        }
+    }
+
+    // Fill a sub-grid
+    private void fillBox(int row,int col) {
+        int num;
+        for(int i=0; i<SRN; i++){
+            for(int j=0; j<SRN; j++){
+                do{
+                    num = randomGenerator(dimension);
+                }
+                while(!unUsedInBox(row, col, num));
+
+                board[row+i][col+j] = num;
+                solvedBoard[row+i][col+j] = num;
+            }
+        }
+    }
+
+    // Fill rest of the board with the first solution found by the solver
+    // The solver searches with an explicit stack, so large boards can not overflow the thread stack
+    // Return false and clear the board if the diagonal can not be completed
+    private boolean fillRemaining() {
+        SudokuSolver solver = new SudokuSolver(dimension);
+        boolean filled = solver.fill(board);
+        report.addSearch(solver);
+        for (int i = 0; i < dimension; i++) {
+            if(!filled){
+                Arrays.fill(board[i], 0);
+            }
+            System.arraycopy(board[i], 0, solvedBoard[i], 0, dimension);
+        }
+        return filled;
+    }
+
+    // Cell positions in the order digging tries them (Fisher-Yates)
+    private int[] shuffledCells() {
+        int[] order = new int[dimension*dimension];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length-1; i > 0; i--) {
+            int j = random.nextInt(i+1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    // Remove digits until enough digits are removed
+    // Sudoku must have a unique solution in the end
+    // The filled board is the known solution, so a removal only needs a search for some other solution,
+    // and no search at all when the removed digit is a naked or hidden single
+    // Package-private for the benchmarks
+    int removeDigits(int digitsToRemove, CancellationToken token) {
+        long startNanos = System.nanoTime();
+        initUsedDigits();
+        int[] order = shuffledCells();
+
+        SolutionCounter sudokuSolver = settings.getEngine().create(dimension);
+        int index = 0;
+        while(index < order.length && !isDugEnough(digitsToRemove)){ // All positions not checked OR Enough digits removed
+            token.throwIfCancelled();
+            int cellId = order[index]; // Get random position from the board
+            int row = (cellId/ dimension); // Get coordinates and value
+            int col = cellId% dimension;
+            int num = board[row][col];
+
+            if(num != 0 && tryRemove(row, col, sudokuSolver)){ // Non-empty cell and unique solution is found
+                digitsToRemove--; // Digit successfully removed
+            }
+            index++;
+        }
+        report.addSearch(sudokuSolver);
+        report.digNanos += System.nanoTime() - startNanos;
+        return countEmpty();
+    }
+
+    // Make a cell empty if the board keeps a unique solution and stays gradable, otherwise put the digit back
+    private boolean tryRemove(int row, int col, SolutionCounter sudokuSolver) {
+        int num = board[row][col];
+        board[row][col] = 0; // Make cell empty
+        toggleUsedDigit(row, col, num);
+        work++;
+        boolean isUnique;
+        boolean isForced = isForcedBySingles(row, col, num);
+        if(isForced){ // Digit follows from the others - still unique
+            report.provedBySingles++;
+            isUnique = true;
+        }
+        else{
+            report.uniquenessSearches++;
+            long nodes = sudokuSolver.getNodeCount();
+            isUnique = !sudokuSolver.hasSolutionWithout(board, row, col, num); // Solve the board
+            work += sudokuSolver.getNodeCount() - nodes;
+        }
+        if(!isUnique || !isWithinTargetTier(isForced)){
+            board[row][col] = num; // No unique solution or needs guessing, put the number back in
+            toggleUsedDigit(row, col, num);
+            return false;
+        }
+        return true;
+    }
+
+    // Check if the board with a digit just removed stays solvable by the techniques of the grader, and update the tier
+    // The target tier is a floor - a harder grade is kept. Only a board that needs guessing is rejected, and only below
+    // the hardest tier, so a hard target stops grading as soon as it is reached.
+    // A digit forced by singles is placed back by the first steps of the grader, so the grade can not change
+    private boolean isWithinTargetTier(boolean isForced) {
+        int targetTier = settings.getTargetTier();
+        if(targetTier == 0 || (targetTier == Grade.HARD && tier >= Grade.HARD)){
+            return true;
+        }
+        if(isForced){
+            tier = Math.max(tier, Grade.EASY);
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        int grade = grader().tier(board, Grade.HARD); // Grade.UNSOLVED if the techniques are not enough
+        report.gradeNanos += System.nanoTime() - startNanos;
+        if(grade > Grade.HARD && targetTier < Grade.HARD){
+            return false;
+        }
+        tier = grade;
+        return true;
+    }
+
+    // Check if digging can stop: enough digits removed and the target tier reached
+    private boolean isDugEnough(int digitsLeft) {
+        return digitsLeft <= 0 && tier >= settings.getTargetTier();
+    }
+
+    private Grader grader() {
+        if(grader == null){
+            grader = new Grader(dimension);
+        }
+        return grader;
+    }
+
+    // Remove digits within the work/time budget of the settings
+    // When a pass over all positions falls short, the latest removal is undone and kept filled,
+    // and the pass is repeated - other removals may become possible without it.
+    // The board ends up as the puzzle with the most empty cells seen before the budget ran out.
+    private int removeDigitsBounded(int digitsToRemove, CancellationToken token, long startNanos) {
+        long digStartNanos = System.nanoTime();
+        initUsedDigits();
+        int[] order = shuffledCells();
+        SolutionCounter sudokuSolver = settings.getEngine().create(dimension);
+        long deadline = settings.getMaxMillis() > 0 ? startNanos + settings.getMaxMillis() * 1_000_000L : Long.MAX_VALUE;
+        long maxWork = settings.getMaxWork() > 0 ? settings.getMaxWork() : Long.MAX_VALUE;
+
+        int[] removed = new int[order.length]; // Removed positions in removal order
+        int removedCount = 0;
+        boolean[] isKept = new boolean[order.length]; // Positions not removed again after a backtrack
+        int[][] best = new int[dimension][dimension];
+        int bestCount = -1;
+        backtracks = 0;
+
+        while(true){
+            for (int index = 0; index < order.length && !isDugEnough(digitsToRemove - removedCount); index++) {
+                token.throwIfCancelled();
+                if(work >= maxWork || System.nanoTime() >= deadline){
+                    break;
+                }
+                int cellId = order[index];
+                int row = cellId / dimension;
+                int col = cellId % dimension;
+                if(board[row][col] != 0 && !isKept[cellId] && tryRemove(row, col, sudokuSolver)){
+                    removed[removedCount++] = cellId;
+                }
+            }
+            if(removedCount > bestCount){ // Best puzzle so far
+                bestCount = removedCount;
+                for (int i = 0; i < dimension; i++) {
+                    System.arraycopy(board[i], 0, best[i], 0, dimension);
+                }
+            }
+            if(isDugEnough(digitsToRemove - removedCount) || removedCount == 0
+                    || work >= maxWork || System.nanoTime() >= deadline){
+                break;
+            }
+            int cellId = removed[--removedCount]; // Undo the latest removal
+            int row = cellId / dimension;
+            int col = cellId % dimension;
+            board[row][col] = solvedBoard[row][col];
+            toggleUsedDigit(row, col, board[row][col]);
+            isKept[cellId] = true;
+            backtracks++;
+            regrade();
+        }
+        for (int i = 0; i < dimension; i++) {
+            System.arraycopy(best[i], 0, board[i], 0, dimension);
+        }
+        regrade();
+        report.addSearch(sudokuSolver);
+        report.digNanos += System.nanoTime() - digStartNanos;
+        return bestCount;
+    }
+
+    // Grade the board again after digits were put back
+    private void regrade() {
+        if(settings.getTargetTier() != 0){
+            long startNanos = System.nanoTime();
+            tier = grader().tier(board, Grade.HARD);
+            report.gradeNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    // Parallel variant of removeDigits - gives the same board for the same shuffled order
+    // A batch of candidate removals is tested on worker threads, each against its own copy of the board.
+    // Removing more digits can only add solutions, so a removal that fails on its own stays rejected;
+    // a removal that passed is rechecked only if an earlier removal of the same batch was committed.
+    // Package-private for the benchmarks
+    int removeDigitsParallel(int digitsToRemove, CancellationToken token) {
+        long startNanos = System.nanoTime();
+        initUsedDigits();
+        int[] order = shuffledCells();
+
+        int batchSize = 2 * Runtime.getRuntime().availableProcessors();
+        int[] batchCells = new int[batchSize];
+        boolean[] isForced = new boolean[batchSize]; // Proved unique by singles on the batch's board
+        boolean[] isPassed = new boolean[batchSize]; // Proved unique by a search on the batch's board
+        long[] taskWork = new long[batchSize]; // Solver nodes of each worker task
+        int[][][] copies = new int[batchSize][dimension][dimension]; // Board of each worker task
+        SolutionCounter[] workerSolvers = new SolutionCounter[batchSize]; // Solver of each task slot, dropped after the call
+        for (int i = 0; i < batchSize; i++) {
+            workerSolvers[i] = settings.getEngine().create(dimension);
+        }
+        SolutionCounter sudokuSolver = settings.getEngine().create(dimension); // Rechecks on this thread
+
+        int index = 0;
+        while(index < order.length && !isDugEnough(digitsToRemove)){
+            token.throwIfCancelled();
+            // Next batch of positions - singles are cheap, so they are checked here
+            int count = 0;
+            while(count < batchSize && index < order.length){
+                int cellId = order[index++];
+                int row = cellId / dimension;
+                int col = cellId % dimension;
+                int num = board[row][col];
+                toggleUsedDigit(row, col, num);
+                isForced[count] = isForcedBySingles(row, col, num);
+                toggleUsedDigit(row, col, num);
+                batchCells[count++] = cellId;
+            }
+
+            // Search the rest in parallel
+            final int batchCount = count;
+            IntStream.range(0, batchCount).parallel().forEach(i -> {
+                if(isForced[i]){
+                    return;
+                }
+                int row = batchCells[i] / dimension;
+                int col = batchCells[i] % dimension;
+                int[][] copy = copies[i];
+                for (int r = 0; r < dimension; r++) {
+                    System.arraycopy(board[r], 0, copy[r], 0, dimension);
+                }
+                copy[row][col] = 0;
+                SolutionCounter workerSolver = workerSolvers[i];
+                long nodes = workerSolver.getNodeCount();
+                isPassed[i] = !workerSolver.hasSolutionWithout(copy, row, col, board[row][col]);
+                taskWork[i] = workerSolver.getNodeCount() - nodes;
+            });
+            for (int i = 0; i < batchCount; i++) {
+                work += 1 + (isForced[i] ? 0 : taskWork[i]);
+            }
+
+            // Commit in order
+            boolean isBoardChanged = false; // An earlier removal of this batch was committed
+            for (int i = 0; i < batchCount && !isDugEnough(digitsToRemove); i++) {
+                int row = batchCells[i] / dimension;
+                int col = batchCells[i] % dimension;
+                int num = board[row][col];
+                board[row][col] = 0;
+                toggleUsedDigit(row, col, num);
+                boolean isUnique;
+                boolean isProvedBySingles = false;
+                if(isForced[i] && !isBoardChanged){
+                    report.provedBySingles++;
+                    isProvedBySingles = true;
+                    isUnique = true;
+                }
+                else if(!isForced[i] && !isPassed[i]){ // Failed on its own
+                    report.uniquenessSearches++;
+                    isUnique = false;
+                }
+                else if(!isBoardChanged){ // Search was done on this exact board
+                    report.uniquenessSearches++;
+                    isUnique = true;
+                }
+                else if(isForcedBySingles(row, col, num)){
+                    report.provedBySingles++;
+                    isProvedBySingles = true;
+                    isUnique = true;
+                }
+                else{
+                    report.uniquenessSearches++;
+                    long nodes = sudokuSolver.getNodeCount();
+                    isUnique = !sudokuSolver.hasSolutionWithout(board, row, col, num);
+                    work += 1 + sudokuSolver.getNodeCount() - nodes;
+                }
+                if(isUnique && isWithinTargetTier(isProvedBySingles)){
+                    digitsToRemove--;
+                    isBoardChanged = true;
+                }
+                else{
+                    board[row][col] = num;
+                    toggleUsedDigit(row, col, num);
+                }
+            }
+        }
+        report.addSearch(sudokuSolver);
+        for (SolutionCounter workerSolver : workerSolvers) {
+            report.addSearch(workerSolver);
+        }
+        report.digNanos += System.nanoTime() - startNanos;
+        return countEmpty();
+    }
+
+    // Count the empty cells in the board
+    private int countEmpty() {
+        int emptyCount = 0;
+        for (int i = 0; i < dimension*dimension; i++) {
+            int row = (i/ dimension);
+            int col = i% dimension;
+            if(board[row][col] == 0){
+                emptyCount++;
+            }
+        }
+        return emptyCount;
+    }
+
+    // Set the used digits of every row, column and sub-grid from the board
+    private void initUsedDigits() {
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                if(board[row][col] != 0){
+                    toggleUsedDigit(row, col, board[row][col]);
+                }
+            }
+        }
+    }
+
+    // Add or remove a digit of a cell from the used digits
+    private void toggleUsedDigit(int row, int col, int num) {
+        int bit = 1 << (num-1);
+        rowUsed[row] ^= bit;
+        colUsed[col] ^= bit;
+        boxUsed[(row/SRN)*SRN + col/SRN] ^= bit;
+    }
+
+    // Check if a digit can not be placed into an empty cell because of the digits left on the board
+    private boolean isBlocked(int row, int col, int bit) {
+        return ((rowUsed[row] | colUsed[col] | boxUsed[(row/SRN)*SRN + col/SRN]) & bit) != 0;
+    }
+
+    // Check if the removed digit is forced by the digits left on the board
+    // Naked single: every other digit is used in the row, column or sub-grid of the cell
+    // Hidden single: the digit is blocked in every other empty cell of the row, column or sub-grid
+    private boolean isForcedBySingles(int row, int col, int num) {
+        int bit = 1 << (num-1);
+        int allDigits = (1 << dimension) - 1;
+        if((rowUsed[row] | colUsed[col] | boxUsed[(row/SRN)*SRN + col/SRN] | bit) == allDigits){
+            return true;
+        }
+        boolean isHiddenInRow = true;
+        boolean isHiddenInCol = true;
+        for (int i = 0; i < dimension; i++) {
+            if(i != col && board[row][i] == 0 && !isBlocked(row, i, bit)){
+                isHiddenInRow = false;
+            }
+            if(i != row && board[i][col] == 0 && !isBlocked(i, col, bit)){
+                isHiddenInCol = false;
+            }
+        }
+        if(isHiddenInRow || isHiddenInCol){
+            return true;
+        }
+        int rowStart = row - row%SRN;
+        int colStart = col - col%SRN;
+        for (int i = 0; i < SRN; i++) {
+            for (int j = 0; j < SRN; j++) {
+                int r = rowStart + i;
+                int c = colStart + j;
+                if((r != row || c != col) && board[r][c] == 0 && !isBlocked(r, c, bit)){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Generate a Sudoku board with the given column/row amount and empty cell count
+    public static Sudoku generate(int dimension, int digitsToRemove) {
+        return generate(dimension, digitsToRemove, SolverEngine.BITMASK);
+    }
+
+    // Generate a Sudoku board using the given engine for uniqueness checks
+    public static Sudoku generate(int dimension, int digitsToRemove, SolverEngine engine) {
+        return generate(dimension, digitsToRemove, engine, new CancellationToken());
+    }
+
+    // Generate a Sudoku board using the given engine, checking the token between steps
+    public static Sudoku generate(int dimension, int digitsToRemove, SolverEngine engine, CancellationToken token) {
+        GeneratorSettings settings = new GeneratorSettings();
+        settings.setEngine(engine);
+        return generate(dimension, digitsToRemove, settings, token);
+    }
+
+    // Generate a Sudoku board from a random seed, checking the token between steps
+    public static Sudoku generate(int dimension, int digitsToRemove, GeneratorSettings settings, CancellationToken token) {
+        return generate(dimension, digitsToRemove, ThreadLocalRandom.current().nextLong(), settings, token);
+    }
+
+    // Generate a Sudoku board from the given seed, checking the token between steps
+    // Throws CancellationException if the token is cancelled before the board is ready
+    // Without a budget, filled boards are thrown away until enough digits could be removed.
+    // With a budget, one filled board is dug with backtracking and the report tells how close it got.
+    // With a target tier, digging goes on past the empty cell count until the tier is reached, and a harder tier is
+    // kept rather than putting digits back. Below the hard tier, removals that need guessing are put back.
+    // The same seed, size, empty cell count and fill strategy give the same puzzle with either engine,
+    // in sequential or parallel mode. A budgeted puzzle only repeats with the same work budget and no time budget,
+    // which a puzzle ID does not hold, so it gets PuzzleId.NONE.
+    public static Sudoku generate(int dimension, int digitsToRemove, long seed, GeneratorSettings settings, CancellationToken token) {
+        long startNanos = System.nanoTime();
+        long puzzleId = PuzzleId.encode(dimension, digitsToRemove, settings.getFillStrategy(),
+                settings.getTargetTier(), seed);
+        SplittableRandom random = new SplittableRandom(PuzzleId.getSeed(puzzleId));
+        if(settings.isBounded()){
+            Sudoku sudoku = new Sudoku(dimension, settings, random);
+            sudoku.fillValues();
+            int emptyCount = sudoku.removeDigitsBounded(digitsToRemove, token, startNanos);
+            sudoku.report.finish(emptyCount, dimension*dimension - emptyCount,
+                    emptyCount >= digitsToRemove && sudoku.tier >= settings.getTargetTier(), sudoku.tier,
+                    sudoku.work, System.nanoTime() - startNanos, 0, sudoku.backtracks);
+            return sudoku; // No ID - fromPuzzleId() would dig without the budget and give another board
+        }
+
+        Sudoku sudoku = null;
+        GenerationReport report = new GenerationReport(); // Shared by the thrown away boards
+        int emptyCount = 0;
+        int regenerations = -1;
+        long work = 0;
+        while(sudoku == null || emptyCount < digitsToRemove || sudoku.tier < settings.getTargetTier()){
+            // Not enough digits removed or tier not reached -> Generate new board and try again
+            token.throwIfCancelled();
+            regenerations++;
+            sudoku = new Sudoku(dimension, settings, random);
+            sudoku.report = report;
+            sudoku.fillValues();
+            if(settings.isParallel()){
+                emptyCount = sudoku.removeDigitsParallel(digitsToRemove, token);
+            }
+            else{
+                emptyCount = sudoku.removeDigits(digitsToRemove, token);
+            }
+            work += sudoku.work;
+        }
+        report.finish(emptyCount, dimension*dimension - emptyCount,
+                true, sudoku.tier, work, System.nanoTime() - startNanos, regenerations, 0);
+        sudoku.puzzleId = puzzleId;
+        return sudoku;
+    }
+
+    // First step of generate() for callers that run the steps on separate threads: a solution grid from the seed
+    // dig() continues with the same random sequence, so a board that digs successfully is the puzzle
+    // generate() gives for the same seed when its first board succeeds
+    public static Sudoku filled(int dimension, int digitsToRemove, GeneratorSettings settings, long seed) {
+        long puzzleId = PuzzleId.encode(dimension, digitsToRemove, settings.getFillStrategy(),
+                settings.getTargetTier(), seed);
+        Sudoku sudoku = new Sudoku(dimension, settings, new SplittableRandom(PuzzleId.getSeed(puzzleId)));
+        sudoku.fillValues();
+        sudoku.puzzleId = puzzleId;
+        return sudoku;
+    }
+
+    // Second step: remove digits from a board made by filled()
+    // Return false if the empty cell count or the target tier was not reached - the board should be dropped
+    public boolean dig(CancellationToken token) {
+        int digitsToRemove = PuzzleId.getDigitsToRemove(puzzleId);
+        int emptyCount;
+        if(settings.isParallel()){
+            emptyCount = removeDigitsParallel(digitsToRemove, token);
+        }
+        else{
+            emptyCount = removeDigits(digitsToRemove, token);
+        }
+        boolean isTargetReached = emptyCount >= digitsToRemove && tier >= settings.getTargetTier();
+        report.finish(emptyCount, dimension*dimension - emptyCount, isTargetReached, tier, work,
+                report.fillNanos + report.digNanos, 0, 0);
+        if(!isTargetReached){
+            puzzleId = PuzzleId.NONE;
+        }
+        return isTargetReached;
+    }
+
+    // Generate the puzzle of an ID returned by getPuzzleId()
+    public static Sudoku fromPuzzleId(long puzzleId) {
+        return fromPuzzleId(puzzleId, new CancellationToken());
+    }
+
+    // Generate the puzzle of an ID returned by getPuzzleId(), checking the token between steps
+    public static Sudoku fromPuzzleId(long puzzleId, CancellationToken token) {
+        GeneratorSettings settings = new GeneratorSettings();
+        settings.setFillStrategy(PuzzleId.getFillStrategy(puzzleId));
+        settings.setTargetTier(PuzzleId.getTargetTier(puzzleId));
+        return generate(PuzzleId.getDimension(puzzleId), PuzzleId.getDigitsToRemove(puzzleId),
+                PuzzleId.getSeed(puzzleId), settings, token);
+    }
+
+    // Outcome and cost of the generate() call that created this board, or of filled() and dig()
+    public GenerationReport getReport() {
+        return report;
+    }
+
+    // ID to regenerate this board with fromPuzzleId()
+    // PuzzleId.NONE if it was not made by generate() or was made within a work/time budget
+    public long getPuzzleId() {
+        return puzzleId;
+    }
+}
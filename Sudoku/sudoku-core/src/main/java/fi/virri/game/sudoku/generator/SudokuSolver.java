@@ -0,0 +1,417 @@
+package fi.virri.game.sudoku.generator;
+
+import org.jetbrains.annotations.NotNull;
+
+public class SudokuSolver implements SolutionCounter {
+    private final int MAX_BOARD_SIZE = 25; // Candidates of a cell must fit into an int bitmask
+    private final int BOARD_SIZE; // Board column/row amount
+    private final int SUBSECTION_SIZE; // Sub-grid column/row amount
+    private final int CELL_COUNT; // Cell amount
+    private final int HOUSE_COUNT; // Rows, columns and sub-grids
+    private final int NO_VALUE = 0; // Empty value of a cell
+    private final int ALL_DIGITS; // Candidate mask with every digit set
+    private final int SOLVED = -1; // Search state: no empty cells left
+    private final int CONTRADICTION = -2; // Search state: some cell or house has no candidates left
+    private final int SOLUTION_LIMIT = 2; // solve() only needs to tell unique from multiple solutions
+    private final int GAVE_UP = -3; // Search result: a limit ran out before the solution count was known
+    private final int CHECK_INTERVAL = 1024; // Search nodes between deadline and cancellation checks, a power of two
+
+    // Lookup tables shared by every search
+    private final int[] rowHouse; // House index of the row of a cell
+    private final int[] colHouse; // House index of the column of a cell
+    private final int[] boxHouse; // House index of the sub-grid of a cell
+    private final int[][] houseCells; // Cells of each house
+
+    // Search state - reused between calls
+    private final int[] values; // Digit of each cell, NO_VALUE if empty
+    private final int[] banned; // Digits a cell may not take in the current search
+    private final int[] houseUsed; // Bitmask of digits placed in each house
+    private final int[] trail; // Cells placed during the search, in placement order
+    private int trailSize = 0;
+    private long nodeCount = 0; // Search frames entered since the solver was created
+    private long backtrackCount = 0; // Returns to a parent frame since the solver was created
+    private final int[] solution; // First solution found by the latest search
+
+    // Limits of the running search - only set by the solve() variants that take limits
+    private long nodeLimit = Long.MAX_VALUE; // Node count at which the search gives up
+    private boolean hasDeadline = false;
+    private long deadlineNanos = 0; // System.nanoTime() at which the search gives up
+    private CancellationToken token = null;
+
+    // Explicit search stack - one frame per branching cell, so large boards can not overflow the thread stack
+    private final int[] frameMark; // Trail position when the frame was entered
+    private final int[] frameBranchMark; // Trail position after propagation, restored between branches
+    private final int[] frameCell; // Cell being branched on
+    private final int[] frameCandidates; // Candidates of the cell not tried yet
+
+    public SudokuSolver() {
+        this(9);
+    }
+
+    public SudokuSolver(int dimension) {
+        BOARD_SIZE = dimension;
+        SUBSECTION_SIZE = (int) Math.sqrt(dimension);
+        if (SUBSECTION_SIZE * SUBSECTION_SIZE != dimension || dimension > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + dimension);
+        }
+        CELL_COUNT = BOARD_SIZE * BOARD_SIZE;
+        HOUSE_COUNT = 3 * BOARD_SIZE;
+        ALL_DIGITS = (1 << BOARD_SIZE) - 1;
+
+        rowHouse = new int[CELL_COUNT];
+        colHouse = new int[CELL_COUNT];
+        boxHouse = new int[CELL_COUNT];
+        houseCells = new int[HOUSE_COUNT][BOARD_SIZE];
+        values = new int[CELL_COUNT];
+        banned = new int[CELL_COUNT];
+        houseUsed = new int[HOUSE_COUNT];
+        trail = new int[CELL_COUNT];
+        solution = new int[CELL_COUNT];
+        frameMark = new int[CELL_COUNT + 1];
+        frameBranchMark = new int[CELL_COUNT + 1];
+        frameCell = new int[CELL_COUNT + 1];
+        frameCandidates = new int[CELL_COUNT + 1];
+
+        for (int row = 0; row < BOARD_SIZE; row++) {
+            for (int col = 0; col < BOARD_SIZE; col++) {
+                int cell = row * BOARD_SIZE + col;
+                int box = (row / SUBSECTION_SIZE) * SUBSECTION_SIZE + col / SUBSECTION_SIZE;
+                int indexInBox = (row % SUBSECTION_SIZE) * SUBSECTION_SIZE + col % SUBSECTION_SIZE;
+                rowHouse[cell] = row;
+                colHouse[cell] = BOARD_SIZE + col;
+                boxHouse[cell] = 2 * BOARD_SIZE + box;
+                houseCells[row][col] = cell;
+                houseCells[BOARD_SIZE + col][row] = cell;
+                houseCells[2 * BOARD_SIZE + box][indexInBox] = cell;
+            }
+        }
+    }
+
+    // Solve a given Sudoku board
+    // Return solution count
+    // Search is stopped if multiple solutions are found
+    // The given board is not modified
+    public int solve(@NotNull int[][] board) {
+        return countSolutions(board, SOLUTION_LIMIT);
+    }
+
+    @Override
+    public int countSolutions(@NotNull int[][] board, int limit) {
+        if (!load(board)) { // Givens conflict with each other
+            return 0;
+        }
+        return search(limit);
+    }
+
+    // Solve a given Sudoku board within limits, so a pathological or huge board can not pin the thread
+    // maxNodes: search nodes the solve may visit, 0 for no limit
+    // maxMillis: time the solve may take, 0 for no limit
+    // The token is checked every CHECK_INTERVAL nodes, so cancelling stops the search from another thread
+    // The given board is not modified
+    @NotNull
+    public SolveResult solve(@NotNull int[][] board, long maxNodes, long maxMillis, @NotNull CancellationToken token) {
+        if (!load(board)) {
+            return SolveResult.UNSOLVABLE;
+        }
+        return searchWithin(maxNodes, maxMillis, token);
+    }
+
+    // Same as above for a board given as cell values in row-major order
+    // The first solution is copied into firstSolution unless the result is UNSOLVABLE or GAVE_UP
+    @NotNull
+    public SolveResult solve(@NotNull int[] cells, @NotNull int[] firstSolution, long maxNodes, long maxMillis,
+                             @NotNull CancellationToken token) {
+        if (!loadCells(cells)) {
+            return SolveResult.UNSOLVABLE;
+        }
+        SolveResult result = searchWithin(maxNodes, maxMillis, token);
+        if (result == SolveResult.UNIQUE || result == SolveResult.MULTIPLE) {
+            System.arraycopy(solution, 0, firstSolution, 0, CELL_COUNT);
+        }
+        return result;
+    }
+
+    // Solve a board given as cell values in row-major order and copy the first solution into firstSolution
+    // Return solution count like solve()
+    // Lets bulk callers skip building an int[][] per puzzle
+    public int solve(@NotNull int[] cells, @NotNull int[] firstSolution) {
+        if (!loadCells(cells)) {
+            return 0;
+        }
+        int solutions = search(SOLUTION_LIMIT);
+        if (solutions > 0) {
+            System.arraycopy(solution, 0, firstSolution, 0, CELL_COUNT);
+        }
+        return solutions;
+    }
+
+    // Copy the board into the search state
+    // Return false if the givens break a row, column or sub-grid constraint
+    private boolean load(@NotNull int[][] board) {
+        clear();
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            if (!give(cell, board[cell / BOARD_SIZE][cell % BOARD_SIZE])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean loadCells(@NotNull int[] cells) {
+        clear();
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            if (!give(cell, cells[cell])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Search the loaded board with the given limits, which are cleared again afterwards
+    @NotNull
+    private SolveResult searchWithin(long maxNodes, long maxMillis, @NotNull CancellationToken token) {
+        if (token.isCancelled()) {
+            return SolveResult.GAVE_UP;
+        }
+        nodeLimit = maxNodes > 0 ? nodeCount + maxNodes : Long.MAX_VALUE;
+        hasDeadline = maxMillis > 0;
+        deadlineNanos = System.nanoTime() + maxMillis * 1_000_000;
+        this.token = token;
+        try {
+            int solutions = search(SOLUTION_LIMIT);
+            if (solutions == GAVE_UP) {
+                return SolveResult.GAVE_UP;
+            }
+            return solutions == 0 ? SolveResult.UNSOLVABLE : solutions == 1 ? SolveResult.UNIQUE : SolveResult.MULTIPLE;
+        }
+        finally {
+            nodeLimit = Long.MAX_VALUE;
+            hasDeadline = false;
+            this.token = null;
+        }
+    }
+
+    // Check the limits of the running search - the clock and the token only every CHECK_INTERVAL nodes
+    private boolean isOverLimits() {
+        if (nodeCount >= nodeLimit) {
+            return true;
+        }
+        if ((nodeCount & (CHECK_INTERVAL - 1)) != 0) {
+            return false;
+        }
+        return (token != null && token.isCancelled()) || (hasDeadline && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    private void clear() {
+        trailSize = 0;
+        for (int house = 0; house < HOUSE_COUNT; house++) {
+            houseUsed[house] = 0;
+        }
+    }
+
+    // Set a given of the loaded board
+    // Return false if the digit is already in the row, column or sub-grid
+    private boolean give(int cell, int value) {
+        values[cell] = value;
+        if (value != NO_VALUE) {
+            int bit = 1 << (value - 1);
+            if (((houseUsed[rowHouse[cell]] | houseUsed[colHouse[cell]] | houseUsed[boxHouse[cell]]) & bit) != 0) {
+                return false;
+            }
+            houseUsed[rowHouse[cell]] |= bit;
+            houseUsed[colHouse[cell]] |= bit;
+            houseUsed[boxHouse[cell]] |= bit;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasSolutionWithout(@NotNull int[][] board, int row, int col, int value) {
+        if (!load(board)) {
+            return false;
+        }
+        int cell = row * BOARD_SIZE + col;
+        banned[cell] = 1 << (value - 1);
+        boolean found = search(1) > 0;
+        banned[cell] = 0;
+        return found;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    // Complete the given board with its first solution
+    // Return false if the board has no solution
+    public boolean fill(@NotNull int[][] board) {
+        if (countSolutions(board, 1) == 0) {
+            return false;
+        }
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            board[cell / BOARD_SIZE][cell % BOARD_SIZE] = solution[cell];
+        }
+        return true;
+    }
+
+    // Count solutions of the loaded state, stopping at the given limit
+    // Depth-first search over an explicit stack of frames
+    // Return GAVE_UP if the limits of the running search ran out first
+    private int search(int limit) {
+        int solutions = 0;
+        int depth = 0;
+        boolean entering = true; // A new frame must be opened at the current depth
+        while (true) {
+            if (entering) {
+                if (isOverLimits()) {
+                    undo(0); // Back to the givens
+                    return GAVE_UP;
+                }
+                nodeCount++;
+                frameMark[depth] = trailSize;
+                int cell = propagate();
+                if (cell == SOLVED || cell == CONTRADICTION) {
+                    if (cell == SOLVED) {
+                        if (solutions == 0) {
+                            System.arraycopy(values, 0, solution, 0, CELL_COUNT);
+                        }
+                        solutions++;
+                    }
+                    undo(frameMark[depth]);
+                    if (depth == 0) {
+                        return solutions;
+                    }
+                    depth--; // Return to the parent frame
+                    backtrackCount++;
+                    undo(frameBranchMark[depth]);
+                }
+                else { // Branch on the most constrained cell
+                    frameCell[depth] = cell;
+                    frameCandidates[depth] = candidates(cell);
+                    frameBranchMark[depth] = trailSize;
+                }
+            }
+
+            int candidates = frameCandidates[depth];
+            if (candidates == 0 || solutions >= limit) { // Frame exhausted
+                undo(frameMark[depth]);
+                if (depth == 0) {
+                    return solutions;
+                }
+                depth--; // Return to the parent frame
+                backtrackCount++;
+                undo(frameBranchMark[depth]);
+                entering = false;
+                continue;
+            }
+            int bit = candidates & -candidates; // Try the next candidate
+            frameCandidates[depth] = candidates ^ bit;
+            place(frameCell[depth], Integer.numberOfTrailingZeros(bit) + 1);
+            depth++;
+            entering = true;
+        }
+    }
+
+    // Place naked and hidden singles until none are left
+    // Return the empty cell with the fewest candidates, SOLVED or CONTRADICTION
+    private int propagate() {
+        while (true) {
+            boolean progress = false;
+            int bestCell = SOLVED;
+            int bestCount = BOARD_SIZE + 1;
+
+            // Naked singles: cells with only one candidate
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                if (values[cell] != NO_VALUE) {
+                    continue;
+                }
+                int candidates = candidates(cell);
+                if (candidates == 0) {
+                    return CONTRADICTION;
+                }
+                if ((candidates & (candidates - 1)) == 0) {
+                    place(cell, Integer.numberOfTrailingZeros(candidates) + 1);
+                    progress = true;
+                }
+                else if (!progress) {
+                    int count = Integer.bitCount(candidates);
+                    if (count < bestCount) {
+                        bestCount = count;
+                        bestCell = cell;
+                    }
+                }
+            }
+            if (progress) {
+                continue;
+            }
+
+            // Hidden singles: digits with only one possible cell in a house
+            for (int house = 0; house < HOUSE_COUNT; house++) {
+                int once = 0;
+                int twice = 0;
+                for (int cell : houseCells[house]) {
+                    if (values[cell] == NO_VALUE) {
+                        int candidates = candidates(cell);
+                        twice |= once & candidates;
+                        once |= candidates;
+                    }
+                }
+                if ((once | houseUsed[house]) != ALL_DIGITS) { // Some digit has no place in the house
+                    return CONTRADICTION;
+                }
+                int singles = once & ~twice;
+                while (singles != 0) {
+                    int bit = singles & -singles;
+                    singles ^= bit;
+                    int target = -1;
+                    for (int cell : houseCells[house]) {
+                        if (values[cell] == NO_VALUE && (candidates(cell) & bit) != 0) {
+                            target = cell;
+                            break;
+                        }
+                    }
+                    if (target == -1) { // Another single of this house took the only cell
+                        return CONTRADICTION;
+                    }
+                    place(target, Integer.numberOfTrailingZeros(bit) + 1);
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                return bestCell;
+            }
+        }
+    }
+
+    // Digits that can still be placed into a cell
+    private int candidates(int cell) {
+        return ~(houseUsed[rowHouse[cell]] | houseUsed[colHouse[cell]] | houseUsed[boxHouse[cell]] | banned[cell]) & ALL_DIGITS;
+    }
+
+    // Place a digit into a cell and record it for undo
+    private void place(int cell, int value) {
+        int bit = 1 << (value - 1);
+        values[cell] = value;
+        houseUsed[rowHouse[cell]] |= bit;
+        houseUsed[colHouse[cell]] |= bit;
+        houseUsed[boxHouse[cell]] |= bit;
+        trail[trailSize++] = cell;
+    }
+
+    // Remove digits placed after the given trail position
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int cell = trail[--trailSize];
+            int bit = ~(1 << (values[cell] - 1));
+            houseUsed[rowHouse[cell]] &= bit;
+            houseUsed[colHouse[cell]] &= bit;
+            houseUsed[boxHouse[cell]] &= bit;
+            values[cell] = NO_VALUE;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package fi.virri.game.sudoku.generator;
+
+// Solving techniques known to the Grader, from the simplest to the hardest
+// The tier of a technique is the difficulty of a puzzle that needs it: 1 easy, 2 medium, 3 hard
+public enum Technique {
+    NAKED_SINGLE(1), // Cell with one candidate left
+    HIDDEN_SINGLE(1), // Digit with one cell left in a row, column or sub-grid
+    POINTING(2), // Digit of a sub-grid confined to one row or column - removed from the rest of the line
+    CLAIMING(2), // Digit of a row or column confined to one sub-grid - removed from the rest of the sub-grid
+    NAKED_PAIR(2), // Two cells of a house with the same two candidates
+    HIDDEN_PAIR(2), // Two digits of a house confined to the same two cells
+    NAKED_TRIPLE(3),
+    HIDDEN_TRIPLE(3),
+    X_WING(3); // Digit confined to the same two columns in two rows, or the same two rows in two columns
+
+    private final int tier;
+
+    Technique(int tier) {
+        this.tier = tier;
+    }
+
+    public int getTier() {
+        return tier;
+    }
+}
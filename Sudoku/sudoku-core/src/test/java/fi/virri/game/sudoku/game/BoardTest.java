@@ -0,0 +1,79 @@
+package fi.virri.game.sudoku.game;
+
+import org.junit.Test;
+
+import fi.virri.game.sudoku.generator.Sudoku;
+
+import static org.junit.Assert.*;
+
+public class BoardTest {
+    @Test
+    public void encodedBoard_decodesToSameGame() {
+        Sudoku sudoku = Sudoku.generate(9, 45);
+        Board board = Board.fromPuzzle(sudoku.board, sudoku.solvedBoard);
+        int empty = 0;
+        while (board.isStartingCell(empty)) {
+            empty++;
+        }
+        board.setValue(empty, board.getSolution(empty) % 9 + 1);
+        board.toggleNote(empty, 1);
+        board.toggleNote(empty, 9);
+
+        Board decoded = Board.decode(9, board.encodeGivens(), board.encodeSolution(), board.encodeValues(),
+                board.encodeNotes());
+        assertEquals(3 * 81, board.encodeNotes().length());
+        for (int i = 0; i < 81; i++) {
+            assertEquals(board.getValue(i), decoded.getValue(i));
+            assertEquals(board.getSolution(i), decoded.getSolution(i));
+            assertEquals(board.isStartingCell(i), decoded.isStartingCell(i));
+            assertEquals(board.getNoteMask(i), decoded.getNoteMask(i));
+        }
+        assertTrue(decoded.getCell(empty / 9, empty % 9).hasNote(9));
+        assertFalse(decoded.getCell(empty / 9, empty % 9).hasNote(5));
+    }
+
+    @Test
+    public void mismatchCount_followsEveryEdit() {
+        Sudoku sudoku = Sudoku.generate(9, 45);
+        Board board = Board.fromPuzzle(sudoku.board, sudoku.solvedBoard);
+        assertEquals(45, board.getMismatchCount());
+        for (int i = 0; i < 81; i++) {
+            if (board.isStartingCell(i)) {
+                continue;
+            }
+            board.setValue(i, board.getSolution(i) % 9 + 1); // Wrong digit
+            board.setValue(i, board.getSolution(i) % 9 + 1); // Same again
+            assertFalse(board.isSolved());
+            assertEquals(1, board.getMistakeCount());
+            board.setValue(i, board.getSolution(i));
+        }
+        assertTrue(board.isSolved());
+        board.setValue(0, 0);
+        assertEquals(1, board.getMismatchCount());
+        board.reset();
+        assertEquals(45, board.getMismatchCount());
+    }
+
+    @Test
+    public void notesToggleAndResetClearsThem() {
+        Sudoku sudoku = Sudoku.generate(16, 120);
+        Board board = Board.fromPuzzle(sudoku.board, sudoku.solvedBoard);
+        Cell cell = board.getCell(0, 0);
+        assertTrue(cell.toggleNote(16));
+        assertTrue(cell.toggleNote(3));
+        assertFalse(cell.toggleNote(3));
+        assertTrue(cell.hasNote(16));
+        assertFalse(cell.hasNote(3));
+        assertEquals(1 << 15, cell.getNoteMask());
+        assertEquals(16, Cell.lowestNote(cell.getNoteMask()));
+        assertEquals(0, Cell.lowestNote(0));
+
+        assertFalse(board.isSolved());
+        board.fillSolution();
+        assertTrue(board.isSolved());
+        board.reset();
+        assertFalse(board.isSolved());
+        assertEquals(0, board.getNoteMask(0));
+        assertEquals(sudoku.board[0][0], board.getValue(0));
+    }
+}
@@ -0,0 +1,91 @@
+package fi.virri.game.sudoku.game;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ConflictIndexTest {
+    @Test
+    public void duplicateDigit_flagsBothCellsUntilErased() {
+        byte[] values = new byte[81];
+        ConflictIndex conflicts = new ConflictIndex(9, values);
+        long[] changed = new long[2];
+
+        values[0] = 5;
+        conflicts.setValue(0, 0, 5);
+        values[40] = 5; // Other row, column and sub-grid
+        conflicts.setValue(40, 0, 5);
+        assertEquals(0, conflicts.getConflictCount());
+
+        values[8] = 5; // Same row as cell 0
+        conflicts.setValue(8, 0, 5);
+        assertTrue(conflicts.isConflicting(0));
+        assertTrue(conflicts.isConflicting(8));
+        assertFalse(conflicts.isConflicting(40));
+        conflicts.drainChangedTo(changed);
+        assertEquals(1L | 1L << 8, changed[0]);
+        assertEquals(0, changed[1]);
+
+        values[8] = 0;
+        conflicts.setValue(8, 5, 0);
+        assertEquals(0, conflicts.getConflictCount());
+        changed = new long[2];
+        conflicts.drainChangedTo(changed);
+        assertEquals(1L | 1L << 8, changed[0]);
+    }
+
+    @Test
+    public void randomEdits_matchFullScan() {
+        Random random = new Random(7);
+        byte[] values = new byte[81];
+        ConflictIndex conflicts = new ConflictIndex(9, values);
+        for (int edit = 0; edit < 2000; edit++) {
+            int index = random.nextInt(81);
+            int value = random.nextInt(10);
+            conflicts.setValue(index, values[index], value);
+            values[index] = (byte) value;
+            int count = 0;
+            for (int i = 0; i < 81; i++) {
+                boolean expected = scanConflict(values, i);
+                assertEquals("cell " + i + " after edit " + edit, expected, conflicts.isConflicting(i));
+                assertEquals("digits of cell " + i, scanPeerDigits(values, i), conflicts.getPeerDigits(i));
+                count += expected ? 1 : 0;
+            }
+            assertEquals(count, conflicts.getConflictCount());
+        }
+    }
+
+    private static int scanPeerDigits(byte[] values, int index) {
+        int row = index / 9;
+        int col = index % 9;
+        int digits = 0;
+        for (int i = 0; i < 81; i++) {
+            int r = i / 9;
+            int c = i % 9;
+            boolean sharesHouse = r == row || c == col || (r / 3 == row / 3 && c / 3 == col / 3);
+            if (sharesHouse && values[i] != 0) {
+                digits |= 1 << (values[i] - 1);
+            }
+        }
+        return digits;
+    }
+
+    private static boolean scanConflict(byte[] values, int index) {
+        int row = index / 9;
+        int col = index % 9;
+        if (values[index] == 0) {
+            return false;
+        }
+        for (int i = 0; i < 81; i++) {
+            int r = i / 9;
+            int c = i % 9;
+            boolean sharesHouse = r == row || c == col || (r / 3 == row / 3 && c / 3 == col / 3);
+            if (i != index && sharesHouse && values[i] == values[index]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
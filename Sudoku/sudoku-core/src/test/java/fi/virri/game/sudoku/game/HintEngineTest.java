@@ -0,0 +1,97 @@
+package fi.virri.game.sudoku.game;
+
+import org.junit.Test;
+
+import fi.virri.game.sudoku.generator.Hint;
+import fi.virri.game.sudoku.generator.SudokuSolver;
+import fi.virri.game.sudoku.generator.Technique;
+
+import static org.junit.Assert.*;
+
+public class HintEngineTest {
+    // Needs an X-Wing after the simpler techniques run out
+    private static final String X_WING =
+            "100000569492056108056109240009640801064010000218035604040500016905061402621000005";
+
+    // 9x9 board from an 81 character line, '0' for an empty cell
+    private static int[][] parse(String puzzle) {
+        int[][] board = new int[9][9];
+        for (int i = 0; i < 81; i++) {
+            board[i / 9][i % 9] = puzzle.charAt(i) - '0';
+        }
+        return board;
+    }
+
+    private static void setValue(Board board, HintEngine engine, int row, int col, int value) {
+        board.setValue(row * 9 + col, value);
+        engine.update(row, col);
+    }
+
+    @Test
+    public void hints_solvePuzzle() {
+        int[][] board = parse(X_WING);
+        int[][] solution = parse(X_WING);
+        assertTrue(new SudokuSolver().fill(solution));
+        Board game = Board.fromPuzzle(board, solution);
+        HintEngine engine = new HintEngine(game);
+
+        boolean isXWingUsed = false;
+        Hint hint;
+        while ((hint = engine.nextHint()) != null) {
+            assertFalse(hint.isMistake());
+            assertEquals(0, board[hint.getRow()][hint.getCol()]);
+            assertEquals(solution[hint.getRow()][hint.getCol()], hint.getDigit());
+            assertTrue(hint.getReasonCells().length > 0);
+            isXWingUsed |= hint.getTechnique() == Technique.X_WING;
+            board[hint.getRow()][hint.getCol()] = hint.getDigit();
+            setValue(game, engine, hint.getRow(), hint.getCol(), hint.getDigit());
+        }
+        assertTrue(isXWingUsed);
+        assertArrayEquals(solution, board);
+        assertTrue(game.isSolved());
+    }
+
+    @Test
+    public void nextHint_flagsWrongDigit() {
+        int[][] board = parse(X_WING);
+        int[][] solution = parse(X_WING);
+        assertTrue(new SudokuSolver().fill(solution));
+        Board game = Board.fromPuzzle(board, solution);
+        HintEngine engine = new HintEngine(game);
+
+        int wrong = solution[0][1] % 9 + 1;
+        setValue(game, engine, 0, 1, wrong);
+        assertEquals(1, game.getMistakeCount());
+        Hint hint = engine.nextHint();
+        assertNotNull(hint);
+        assertTrue(hint.isMistake());
+        assertEquals(0, hint.getRow());
+        assertEquals(1, hint.getCol());
+        assertEquals(wrong, hint.getDigit());
+
+        setValue(game, engine, 0, 1, 0); // Erasing the digit clears the mistake
+        assertEquals(0, game.getMistakeCount());
+        assertFalse(engine.nextHint().isMistake());
+    }
+
+    @Test
+    public void nextHint_followsErasedDigits() {
+        int[][] board = parse(X_WING);
+        int[][] solution = parse(X_WING);
+        assertTrue(new SudokuSolver().fill(solution));
+        Board game = Board.fromPuzzle(board, solution);
+        HintEngine engine = new HintEngine(game);
+        setValue(game, engine, 1, 0, 0); // Erase givens, so candidates come back to their peers
+        setValue(game, engine, 8, 8, 0);
+        board[1][0] = 0;
+        board[8][8] = 0;
+
+        Hint hint = engine.nextHint();
+        Hint expected = new HintEngine(Board.fromPuzzle(board, solution)).nextHint();
+        assertNotNull(hint);
+        assertEquals(expected.getRow(), hint.getRow());
+        assertEquals(expected.getCol(), hint.getCol());
+        assertEquals(expected.getDigit(), hint.getDigit());
+        assertEquals(expected.getTechnique(), hint.getTechnique());
+    }
+}
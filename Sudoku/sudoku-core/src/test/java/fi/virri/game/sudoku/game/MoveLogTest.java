@@ -0,0 +1,81 @@
+package fi.virri.game.sudoku.game;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoveLogTest {
+    @Test
+    public void packedMove_keepsItsFields() {
+        int move = MoveLog.valueMove(624, 25, 7);
+        assertEquals(624, MoveLog.getCell(move));
+        assertEquals(25, MoveLog.getOldValue(move));
+        assertEquals(7, MoveLog.getNewValue(move));
+        assertFalse(MoveLog.isNoteMove(move));
+
+        int note = MoveLog.noteMove(80, 9);
+        assertEquals(80, MoveLog.getCell(note));
+        assertEquals(9, MoveLog.getNewValue(note));
+        assertTrue(MoveLog.isNoteMove(note));
+    }
+
+    @Test
+    public void undoAndRedo_walkTheMovesInOrder() {
+        MoveLog log = new MoveLog();
+        assertFalse(log.canUndo());
+        for (int i = 0; i < 200; i++) { // Past the initial capacity
+            log.record(MoveLog.valueMove(i % 81, 0, i % 9 + 1));
+        }
+        for (int i = 199; i >= 0; i--) {
+            assertTrue(log.canUndo());
+            assertEquals(MoveLog.valueMove(i % 81, 0, i % 9 + 1), log.undo());
+        }
+        assertFalse(log.canUndo());
+        assertEquals(MoveLog.valueMove(0, 0, 1), log.redo());
+        assertEquals(1, log.getCursor());
+    }
+
+    @Test
+    public void record_dropsTheUndoneMoves() {
+        MoveLog log = new MoveLog();
+        log.record(MoveLog.valueMove(0, 0, 1));
+        log.record(MoveLog.valueMove(1, 0, 2));
+        log.undo();
+        assertTrue(log.canRedo());
+        log.record(MoveLog.noteMove(2, 3));
+        assertFalse(log.canRedo());
+        assertEquals(MoveLog.noteMove(2, 3), log.undo());
+        assertEquals(MoveLog.valueMove(0, 0, 1), log.undo());
+    }
+
+    @Test
+    public void encodedLog_decodesWithItsRedoMoves() {
+        MoveLog log = new MoveLog();
+        for (int i = 0; i < 100; i++) {
+            log.record(MoveLog.valueMove(i, i % 10, i % 9 + 1));
+        }
+        log.undo();
+        log.undo();
+
+        MoveLog decoded = MoveLog.decode(log.encode(), log.getCursor());
+        assertEquals(98, decoded.getCursor());
+        assertEquals(MoveLog.valueMove(98, 8, 9), decoded.redo());
+        assertEquals(MoveLog.valueMove(99, 9, 1), decoded.redo());
+        assertFalse(decoded.canRedo());
+        assertEquals(log.encode(), decoded.encode());
+    }
+
+    @Test
+    public void fullLog_forgetsTheOldestMoves() {
+        MoveLog log = new MoveLog();
+        int max = 1 << 16;
+        for (int i = 0; i < max + 10; i++) {
+            log.record(MoveLog.valueMove(i % 625, 0, 1));
+        }
+        assertEquals(max, log.getCursor());
+        for (int i = max + 9; i >= 10; i--) {
+            assertEquals(MoveLog.valueMove(i % 625, 0, 1), log.undo());
+        }
+        assertFalse(log.canUndo());
+    }
+}
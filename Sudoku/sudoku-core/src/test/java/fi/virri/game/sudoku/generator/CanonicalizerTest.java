@@ -0,0 +1,95 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class CanonicalizerTest {
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+    // Random relabeling, band/stack swaps, row/column swaps inside them and transpose
+    private static int[][] transform(int[][] board, SplittableRandom random) {
+        int[] rows = lineOrder(random);
+        int[] cols = lineOrder(random);
+        int[] digits = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int i = 9; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int swap = digits[i];
+            digits[i] = digits[j];
+            digits[j] = swap;
+        }
+        boolean isTransposed = random.nextBoolean();
+        int[][] result = new int[9][9];
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int value = board[rows[row]][cols[col]];
+                result[isTransposed ? col : row][isTransposed ? row : col] = digits[value];
+            }
+        }
+        return result;
+    }
+
+    private static int[] lineOrder(SplittableRandom random) {
+        int[] bands = permutation(random);
+        int[] order = new int[9];
+        for (int band = 0; band < 3; band++) {
+            int[] inside = permutation(random);
+            for (int i = 0; i < 3; i++) {
+                order[band * 3 + i] = bands[band] * 3 + inside[i];
+            }
+        }
+        return order;
+    }
+
+    private static int[] permutation(SplittableRandom random) {
+        int[] values = {0, 1, 2};
+        for (int i = 2; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    @Test
+    public void equivalentPuzzles_haveSameCanonicalForm() {
+        Canonicalizer canonicalizer = new Canonicalizer();
+        int[][] board = TestBoards.parse(PUZZLE);
+        int[] canonical = canonicalizer.canonicalize(board);
+        long hash = canonicalizer.hash(board);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 20; i++) {
+            int[][] transformed = transform(board, random);
+            assertArrayEquals(canonical, canonicalizer.canonicalize(transformed));
+            assertEquals(hash, canonicalizer.hash(transformed));
+        }
+
+        // The canonical form is its own canonical form
+        int[][] canonicalBoard = new int[9][9];
+        for (int i = 0; i < 81; i++) {
+            canonicalBoard[i / 9][i % 9] = canonical[i];
+        }
+        assertArrayEquals(canonical, canonicalizer.canonicalize(canonicalBoard));
+    }
+
+    @Test
+    public void differentPuzzles_haveDifferentHashes() {
+        Canonicalizer canonicalizer = new Canonicalizer();
+        int[][] board = TestBoards.parse(PUZZLE);
+        int[][] other = TestBoards.parse(PUZZLE);
+        other[0][0] = 0; // One given less
+        assertNotEquals(canonicalizer.hash(board), canonicalizer.hash(other));
+
+        long[] first = new long[2];
+        long[] second = new long[2];
+        canonicalizer.hash128(board, first);
+        canonicalizer.hash128(transform(board, new SplittableRandom(1)), second);
+        assertArrayEquals(first, second);
+        canonicalizer.hash128(other, second);
+        assertFalse(first[0] == second[0] && first[1] == second[1]);
+    }
+}
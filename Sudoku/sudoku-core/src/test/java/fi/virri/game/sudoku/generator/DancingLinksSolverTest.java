@@ -0,0 +1,44 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DancingLinksSolverTest {
+    // Puzzle with 17 givens (minimum) and a unique solution
+    private static final String SPARSE =
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000";
+
+    @Test
+    public void countsMatchBitmaskEngine() {
+        DancingLinksSolver dancingLinks = new DancingLinksSolver();
+        SudokuSolver bitmask = new SudokuSolver();
+        int[][] board = TestBoards.parse(SPARSE);
+        assertEquals(1, dancingLinks.solve(board));
+        for (int cell = 0; cell < 81; cell++) { // Removing any clue of a minimal puzzle breaks uniqueness
+            int value = board[cell / 9][cell % 9];
+            if (value != 0) {
+                board[cell / 9][cell % 9] = 0;
+                assertEquals(bitmask.solve(board), dancingLinks.solve(board));
+                board[cell / 9][cell % 9] = value;
+            }
+        }
+        assertEquals(1, dancingLinks.solve(board)); // Matrix is restored between calls
+    }
+
+    @Test
+    public void conflictingGivens_haveNoSolution() {
+        DancingLinksSolver solver = new DancingLinksSolver();
+        int[][] board = TestBoards.parse(SPARSE);
+        board[0][0] = 1; // Second 1 in the first row
+        assertEquals(0, solver.solve(board));
+        board[0][0] = 0;
+        assertEquals(1, solver.solve(board));
+    }
+
+    @Test
+    public void countSolutions_respectsLimit() {
+        assertEquals(5, new DancingLinksSolver().countSolutions(new int[9][9], 5));
+        assertEquals(5, new SudokuSolver().countSolutions(new int[9][9], 5));
+    }
+}
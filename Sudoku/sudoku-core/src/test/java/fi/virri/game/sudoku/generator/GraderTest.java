@@ -0,0 +1,48 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GraderTest {
+    // Solved by singles alone
+    private static final String EASY =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    // Needs an X-Wing after the simpler techniques run out
+    private static final String X_WING =
+            "100000569492056108056109240009640801064010000218035604040500016905061402621000005";
+    // Needs guessing
+    private static final String UNSOLVED =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    @Test
+    public void grade_findsHardestTechnique() {
+        Grader grader = new Grader();
+        Grade easy = grader.grade(TestBoards.parse(EASY));
+        assertTrue(easy.isSolved());
+        assertEquals(Grade.EASY, easy.getTier());
+
+        Grade xWing = grader.grade(TestBoards.parse(X_WING));
+        assertTrue(xWing.isSolved());
+        assertEquals(Technique.X_WING, xWing.getHardest());
+        assertEquals(Grade.HARD, xWing.getTier());
+
+        Grade unsolved = grader.grade(TestBoards.parse(UNSOLVED));
+        assertFalse(unsolved.isSolved());
+        assertEquals(Grade.UNSOLVED, unsolved.getTier());
+    }
+
+    @Test
+    public void tier_stopsAboveMaxTier() {
+        Grader grader = new Grader();
+        assertEquals(Grade.MEDIUM + 1, grader.tier(TestBoards.parse(X_WING), Grade.MEDIUM));
+        assertEquals(Grade.EASY, grader.tier(TestBoards.parse(EASY), Grade.EASY));
+    }
+
+    @Test
+    public void grade_doesNotModifyBoard() {
+        int[][] board = TestBoards.parse(X_WING);
+        new Grader().grade(board);
+        assertArrayEquals(TestBoards.parse(X_WING), board);
+    }
+}
@@ -0,0 +1,37 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+    @Test
+    public void matchesHashSet() {
+        LongHashSet set = new LongHashSet();
+        HashSet<Long> expected = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(4) == 0 ? random.nextInt(1000) : random.nextLong(); // Some repeats
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value : expected) {
+            assertTrue(set.contains(value));
+        }
+        assertFalse(set.contains(1001));
+    }
+
+    @Test
+    public void zeroIsAValue() {
+        LongHashSet set = new LongHashSet(4);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+    }
+}
@@ -0,0 +1,103 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class PuzzlePoolTest {
+
+    private static File createDirectory() throws IOException {
+        File directory = Files.createTempDirectory("pool").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    private static void assertSolvedBy(Sudoku sudoku) {
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int value = sudoku.board[row][col];
+                assertTrue(value == 0 || value == sudoku.solvedBoard[row][col]);
+            }
+        }
+    }
+
+    @Test
+    public void take_generatesWhenPoolIsEmpty() {
+        PuzzlePool pool = new PuzzlePool();
+        assertEquals(0, pool.size(PuzzlePool.EASY));
+        Sudoku sudoku = pool.take(PuzzlePool.EASY);
+        pool.cancel();
+        assertSolvedBy(sudoku);
+        int empty = 0;
+        for (int[] row : sudoku.board) {
+            for (int value : row) {
+                empty += value == 0 ? 1 : 0;
+            }
+        }
+        assertTrue(empty >= PuzzlePool.digitsToRemove(PuzzlePool.EASY));
+    }
+
+    @Test
+    public void isNew_rejectsRelabeledAndTransposedCopy() {
+        PuzzlePool pool = new PuzzlePool();
+        Sudoku sudoku = Sudoku.generate(9, 45);
+        Sudoku copy = new Sudoku(9);
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int value = sudoku.board[row][col];
+                copy.board[col][row] = value == 0 ? 0 : value % 9 + 1;
+            }
+        }
+        assertTrue(pool.isNew(sudoku));
+        assertFalse(pool.isNew(sudoku));
+        assertFalse(pool.isNew(copy));
+        assertTrue(pool.isNew(Sudoku.generate(9, 45)));
+    }
+
+    @Test
+    public void persist_movesReadyPuzzlesToStoreForNextProcess()
+            throws IOException, InterruptedException, ExecutionException {
+        File directory = createDirectory();
+        PuzzleStore store = new PuzzleStore(directory);
+        PuzzlePool pool = new PuzzlePool();
+        pool.attachStore(store);
+        pool.refill();
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (pool.size(PuzzlePool.EASY) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(pool.size(PuzzlePool.EASY) > 0);
+
+        Future<?> drain = pool.persist();
+        assertNotNull(drain);
+        drain.get();
+        for (int difficulty = PuzzlePool.EASY; difficulty <= PuzzlePool.HARD; difficulty++) {
+            assertEquals(0, pool.size(difficulty));
+        }
+        assertTrue(store.size(PuzzlePool.EASY) > 0);
+        store.close();
+
+        File copy = createDirectory(); // Oldest stored puzzle, read without touching the original
+        Files.copy(new File(directory, "puzzles-1.bin").toPath(), new File(copy, "puzzles-1.bin").toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        PuzzleStore copyStore = new PuzzleStore(copy);
+        Sudoku expected = copyStore.poll(PuzzlePool.EASY);
+        copyStore.close();
+        assertNotNull(expected);
+
+        PuzzlePool restarted = new PuzzlePool();
+        PuzzleStore reopened = new PuzzleStore(directory);
+        restarted.attachStore(reopened);
+        Sudoku taken = restarted.take(PuzzlePool.EASY); // From disk, not generated
+        restarted.cancel();
+        assertArrayEquals(expected.board, taken.board);
+        assertArrayEquals(expected.solvedBoard, taken.solvedBoard);
+    }
+}
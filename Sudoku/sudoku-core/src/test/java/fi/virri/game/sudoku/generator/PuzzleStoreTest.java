@@ -0,0 +1,114 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class PuzzleStoreTest {
+
+    private static File createDirectory() throws IOException {
+        File directory = Files.createTempDirectory("puzzles").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    @Test
+    public void puzzlesAreReturnedInOrderAfterReopening() throws IOException {
+        File directory = createDirectory();
+        Sudoku first = Sudoku.generate(9, 40);
+        Sudoku second = Sudoku.generate(9, 50);
+
+        PuzzleStore store = new PuzzleStore(directory);
+        assertTrue(store.append(PuzzlePool.HARD, first));
+        assertTrue(store.append(PuzzlePool.HARD, second));
+        assertEquals(0, store.size(PuzzlePool.EASY));
+        store.close();
+
+        store = new PuzzleStore(directory); // Survives a restart
+        assertEquals(2, store.size(PuzzlePool.HARD));
+        Sudoku loaded = store.poll(PuzzlePool.HARD);
+        assertNotNull(loaded);
+        assertArrayEquals(first.board, loaded.board);
+        assertArrayEquals(first.solvedBoard, loaded.solvedBoard);
+        store.close();
+
+        store = new PuzzleStore(directory); // Consumed records stay consumed
+        assertEquals(1, store.size(PuzzlePool.HARD));
+        loaded = store.poll(PuzzlePool.HARD);
+        assertNotNull(loaded);
+        assertArrayEquals(second.board, loaded.board);
+        assertNull(store.poll(PuzzlePool.HARD));
+        assertEquals(0, store.size(PuzzlePool.HARD));
+        store.close();
+    }
+
+    @Test
+    public void recordIsEightyOneBytes() throws IOException {
+        File directory = createDirectory();
+        PuzzleStore store = new PuzzleStore(directory);
+        store.append(PuzzlePool.EASY, Sudoku.generate(9, 40));
+        store.close();
+        assertEquals(8 + 81, new File(directory, "puzzles-1.bin").length());
+    }
+
+    @Test
+    public void fileStaysBoundedWhenTheQueueNeverDrains() throws IOException {
+        File directory = createDirectory();
+        File file = new File(directory, "puzzles-3.bin");
+        PuzzleStore store = new PuzzleStore(directory);
+        Sudoku[] puzzles = new Sudoku[200];
+        for (int i = 0; i < puzzles.length; i++) {
+            puzzles[i] = Sudoku.generate(9, 40);
+        }
+        for (int i = 0; i < 5; i++) { // Stock the pool keeps topped up
+            assertTrue(store.append(PuzzlePool.HARD, puzzles[i]));
+        }
+        for (int i = 5; i < puzzles.length; i++) { // One game played, one puzzle generated
+            Sudoku polled = store.poll(PuzzlePool.HARD);
+            assertNotNull(polled);
+            assertArrayEquals(puzzles[i - 5].board, polled.board);
+            assertTrue(store.append(PuzzlePool.HARD, puzzles[i]));
+            assertTrue(file.length() <= 8 + 40 * 81);
+        }
+        store.close();
+
+        store = new PuzzleStore(directory); // Compacted file reopens in order
+        assertEquals(5, store.size(PuzzlePool.HARD));
+        Sudoku polled = store.poll(PuzzlePool.HARD);
+        assertNotNull(polled);
+        assertArrayEquals(puzzles[puzzles.length - 5].board, polled.board);
+        store.close();
+    }
+
+    @Test
+    public void partialRecordIsDroppedOnReopening() throws IOException {
+        File directory = createDirectory();
+        Sudoku first = Sudoku.generate(9, 40);
+        Sudoku second = Sudoku.generate(9, 45);
+        PuzzleStore store = new PuzzleStore(directory);
+        assertTrue(store.append(PuzzlePool.MEDIUM, first));
+        store.close();
+        try (FileOutputStream out = new FileOutputStream(new File(directory, "puzzles-2.bin"), true)) {
+            out.write(new byte[40]); // Append cut short by a crash
+        }
+
+        store = new PuzzleStore(directory);
+        assertEquals(1, store.size(PuzzlePool.MEDIUM));
+        assertTrue(store.append(PuzzlePool.MEDIUM, second));
+        assertEquals(8 + 2 * 81, new File(directory, "puzzles-2.bin").length());
+        Sudoku loaded = store.poll(PuzzlePool.MEDIUM);
+        assertNotNull(loaded);
+        assertArrayEquals(first.solvedBoard, loaded.solvedBoard);
+        loaded = store.poll(PuzzlePool.MEDIUM);
+        assertNotNull(loaded);
+        assertArrayEquals(second.board, loaded.board);
+        assertArrayEquals(second.solvedBoard, loaded.solvedBoard);
+        assertNull(store.poll(PuzzlePool.MEDIUM));
+        store.close();
+    }
+}
@@ -0,0 +1,115 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SudokuSolverTest {
+    // Puzzle with a unique solution
+    private static final String UNIQUE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+    // Puzzle with 17 givens (minimum) and a unique solution
+    private static final String SPARSE =
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000";
+    // Puzzle that singles alone do not solve
+    private static final String BRANCHING =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    @Test
+    public void uniquePuzzle_hasOneSolution() {
+        assertEquals(1, new SudokuSolver().solve(TestBoards.parse(UNIQUE)));
+        assertEquals(1, new SudokuSolver().solve(TestBoards.parse(SPARSE)));
+    }
+
+    @Test
+    public void emptyBoard_stopsAtTwoSolutions() {
+        assertEquals(2, new SudokuSolver().solve(new int[9][9]));
+    }
+
+    @Test
+    public void removedClue_hasMultipleSolutions() {
+        int[][] board = TestBoards.parse(SPARSE);
+        board[0][7] = 0;
+        assertEquals(2, new SudokuSolver().solve(board));
+    }
+
+    @Test
+    public void conflictingGivens_haveNoSolution() {
+        int[][] board = TestBoards.parse(UNIQUE);
+        board[0][2] = 5; // Second 5 in the first row
+        assertEquals(0, new SudokuSolver().solve(board));
+    }
+
+    @Test
+    public void solve_doesNotModifyBoard() {
+        int[][] board = TestBoards.parse(UNIQUE);
+        SudokuSolver solver = new SudokuSolver();
+        solver.solve(board);
+        assertArrayEquals(TestBoards.parse(UNIQUE), board);
+        assertEquals(2, solver.solve(new int[9][9])); // Solver can be reused
+        assertEquals(1, solver.solve(board));
+    }
+
+    @Test
+    public void solveCells_copiesSolution() {
+        int[] cells = new int[81];
+        for (int i = 0; i < 81; i++) {
+            cells[i] = UNIQUE.charAt(i) - '0';
+        }
+        int[][] board = TestBoards.parse(UNIQUE);
+        SudokuSolver solver = new SudokuSolver();
+        assertTrue(solver.fill(board));
+        int[] solution = new int[81];
+        assertEquals(1, solver.solve(cells, solution));
+        for (int i = 0; i < 81; i++) {
+            assertEquals(board[i / 9][i % 9], solution[i]);
+        }
+        cells[2] = 5; // Second 5 in the first row
+        assertEquals(0, solver.solve(cells, solution));
+    }
+
+    @Test
+    public void solveWithLimits_reportsEachOutcome() {
+        SudokuSolver solver = new SudokuSolver();
+        CancellationToken token = new CancellationToken();
+        // Singles only, no branching
+        assertEquals(SolveResult.UNIQUE, solver.solve(TestBoards.parse(UNIQUE), 1, 0, token));
+        assertEquals(SolveResult.MULTIPLE, solver.solve(new int[9][9], 0, 0, token));
+        int[][] conflicting = TestBoards.parse(UNIQUE);
+        conflicting[0][2] = 5;
+        assertEquals(SolveResult.UNSOLVABLE, solver.solve(conflicting, 0, 0, token));
+
+        assertEquals(SolveResult.GAVE_UP, solver.solve(TestBoards.parse(BRANCHING), 1, 0, token));
+        // Reusable after giving up
+        assertEquals(SolveResult.UNIQUE, solver.solve(TestBoards.parse(BRANCHING), 0, 10_000, token));
+        token.cancel();
+        assertEquals(SolveResult.GAVE_UP, solver.solve(TestBoards.parse(UNIQUE), 0, 0, token));
+        assertEquals(1, solver.solve(TestBoards.parse(BRANCHING))); // Limits do not outlive the call
+    }
+
+    @Test
+    public void hasSolutionWithout_matchesSolutionCount() {
+        int[][] board = TestBoards.parse(SPARSE);
+        int[][] solved = TestBoards.parse(SPARSE);
+        SudokuSolver solver = new SudokuSolver();
+        assertTrue(solver.fill(solved));
+        DancingLinksSolver dancingLinks = new DancingLinksSolver();
+        for (int cell = 0; cell < 81; cell += 7) {
+            int row = cell / 9;
+            int col = cell % 9;
+            if (board[row][col] == 0) { // Filling one more cell keeps the puzzle unique
+                assertFalse(solver.hasSolutionWithout(board, row, col, solved[row][col]));
+                assertFalse(dancingLinks.hasSolutionWithout(board, row, col, solved[row][col]));
+            }
+            else { // Removing a clue of a minimal puzzle allows another solution
+                int value = board[row][col];
+                board[row][col] = 0;
+                assertTrue(solver.hasSolutionWithout(board, row, col, value));
+                assertTrue(dancingLinks.hasSolutionWithout(board, row, col, value));
+                board[row][col] = value;
+            }
+        }
+        assertEquals(1, solver.solve(board)); // Nothing stays banned
+        assertEquals(1, dancingLinks.solve(board));
+    }
+}
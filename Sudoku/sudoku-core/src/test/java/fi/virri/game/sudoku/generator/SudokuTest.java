@@ -0,0 +1,147 @@
+package fi.virri.game.sudoku.generator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SudokuTest {
+    // Check that the puzzle has enough empty cells, a unique solution and that solution is solvedBoard
+    private static void assertValidPuzzle(Sudoku sudoku, int dimension, int digitsToRemove) {
+        int empty = 0;
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                if (sudoku.board[row][col] == 0) {
+                    empty++;
+                }
+                else {
+                    assertEquals(sudoku.solvedBoard[row][col], sudoku.board[row][col]);
+                }
+            }
+        }
+        assertTrue(empty >= digitsToRemove);
+        SudokuSolver solver = new SudokuSolver(dimension);
+        assertEquals(1, solver.solve(sudoku.board));
+        assertEquals(1, solver.solve(sudoku.solvedBoard));
+    }
+
+    @Test
+    public void generate_standardBoard() {
+        assertValidPuzzle(Sudoku.generate(9, 50), 9, 50);
+        assertValidPuzzle(Sudoku.generate(9, 45, SolverEngine.DANCING_LINKS), 9, 45);
+    }
+
+    @Test
+    public void generate_otherDimensions() {
+        assertValidPuzzle(Sudoku.generate(4, 6), 4, 6);
+        assertValidPuzzle(Sudoku.generate(16, 120), 16, 120);
+        assertValidPuzzle(Sudoku.generate(25, 250), 25, 250);
+    }
+
+    @Test
+    public void generate_withBudgetReturnsBestPuzzle() {
+        GeneratorSettings settings = new GeneratorSettings();
+        settings.setMaxWork(20000);
+        Sudoku sudoku = Sudoku.generate(9, 70, settings, new CancellationToken()); // 70 empty cells is impossible
+        GenerationReport report = sudoku.getReport();
+        assertFalse(report.isTargetReached());
+        assertTrue(report.getWork() < 20000 + 1000); // Last search may overshoot the budget
+        assertEquals(81, report.getClueCount() + report.getEmptyCount());
+        assertValidPuzzle(sudoku, 9, report.getEmptyCount());
+        assertEquals(PuzzleId.NONE, sudoku.getPuzzleId()); // Could not be regenerated without the budget
+    }
+
+    @Test
+    public void generate_fromTransformedGrid() {
+        GeneratorSettings settings = new GeneratorSettings();
+        settings.setFillStrategy(FillStrategy.TRANSFORM);
+        for (int dimension : new int[]{4, 9, 16}) {
+            int digitsToRemove = dimension * dimension / 2;
+            assertValidPuzzle(Sudoku.generate(dimension, digitsToRemove, settings, new CancellationToken()),
+                    dimension, digitsToRemove);
+        }
+    }
+
+    @Test
+    public void generate_sameSeedGivesSamePuzzle() {
+        long seed = 0x1234abcdL;
+        Sudoku first = Sudoku.generate(9, 50, seed, new GeneratorSettings(), new CancellationToken());
+
+        GeneratorSettings parallel = new GeneratorSettings();
+        parallel.setParallel(true);
+        parallel.setEngine(SolverEngine.DANCING_LINKS);
+        Sudoku second = Sudoku.generate(9, 50, seed, parallel, new CancellationToken());
+        assertArrayEquals(first.board, second.board);
+        assertArrayEquals(first.solvedBoard, second.solvedBoard);
+
+        GeneratorSettings transform = new GeneratorSettings();
+        transform.setFillStrategy(FillStrategy.TRANSFORM);
+        Sudoku transformed = Sudoku.generate(16, 120, seed, transform, new CancellationToken());
+        assertArrayEquals(transformed.board, Sudoku.generate(16, 120, seed, transform, new CancellationToken()).board);
+    }
+
+    @Test
+    public void fromPuzzleId_regeneratesPuzzle() {
+        GeneratorSettings settings = new GeneratorSettings();
+        settings.setFillStrategy(FillStrategy.TRANSFORM);
+        Sudoku sudoku = Sudoku.generate(9, 45, settings, new CancellationToken());
+        long puzzleId = sudoku.getPuzzleId();
+        assertEquals(9, PuzzleId.getDimension(puzzleId));
+        assertEquals(45, PuzzleId.getDigitsToRemove(puzzleId));
+        assertEquals(FillStrategy.TRANSFORM, PuzzleId.getFillStrategy(puzzleId));
+
+        Sudoku regenerated = Sudoku.fromPuzzleId(puzzleId);
+        assertEquals(puzzleId, regenerated.getPuzzleId());
+        assertArrayEquals(sudoku.board, regenerated.board);
+        assertArrayEquals(sudoku.solvedBoard, regenerated.solvedBoard);
+    }
+
+    @Test
+    public void generate_reachesTargetTier() {
+        Grader grader = new Grader();
+        for (int tier = Grade.EASY; tier <= Grade.HARD; tier++) {
+            Sudoku sudoku = Sudoku.generate(9, 40, PuzzlePool.settings(tier), new CancellationToken());
+            assertValidPuzzle(sudoku, 9, 40);
+            int graded = grader.grade(sudoku.board).getTier();
+            assertEquals(graded, sudoku.getReport().getTier());
+            assertTrue(graded >= tier);
+            if (tier < Grade.HARD) {
+                assertTrue(graded <= Grade.HARD); // Solvable without guessing
+            }
+        }
+    }
+
+    @Test
+    public void generate_hardTierRarelyRegenerates() {
+        int regenerations = 0;
+        for (int i = 0; i < 20; i++) {
+            Sudoku sudoku = Sudoku.generate(9, PuzzlePool.digitsToRemove(PuzzlePool.HARD), i,
+                    PuzzlePool.settings(Grade.HARD), new CancellationToken());
+            assertTrue(sudoku.getReport().getTier() >= Grade.HARD);
+            regenerations += sudoku.getReport().getRegenerations();
+        }
+        assertTrue(regenerations <= 20 * 5); // Was about 80 per puzzle when harder tiers were put back
+    }
+
+    @Test
+    public void generate_reportsCostAndFeedsStats() {
+        GenerationStats stats = new GenerationStats();
+        long provedBySingles = 0;
+        for (int i = 0; i < 3; i++) {
+            Sudoku sudoku = Sudoku.generate(9, 45, PuzzlePool.settings(Grade.MEDIUM), new CancellationToken());
+            GenerationReport report = sudoku.getReport();
+            assertTrue(report.getFillNanos() > 0);
+            assertTrue(report.getDigNanos() > 0);
+            assertTrue(report.getGradeNanos() > 0);
+            assertTrue(report.getSearchNodes() > 0);
+            assertTrue(report.getUniquenessSearches() + report.getProvedBySingles() >= 45);
+            assertTrue(report.getBoxChecks() > 0);
+            provedBySingles += report.getProvedBySingles();
+            stats.record(PuzzlePool.MEDIUM, report);
+        }
+        assertEquals(3, stats.getCount(PuzzlePool.MEDIUM));
+        assertEquals(0, stats.getCount(PuzzlePool.HARD));
+        assertEquals(3, stats.get(PuzzlePool.MEDIUM, GenerationStats.Metric.CLUES).getCount());
+        assertTrue(stats.get(PuzzlePool.MEDIUM, GenerationStats.Metric.CLUES).getMax() <= 81 - 45);
+        assertEquals(provedBySingles, stats.get(PuzzlePool.MEDIUM, GenerationStats.Metric.PROVED_BY_SINGLES).getSum());
+    }
+}
@@ -0,0 +1,16 @@
+package fi.virri.game.sudoku.generator;
+
+// Board fixtures shared by the generator tests
+final class TestBoards {
+    private TestBoards() {
+    }
+
+    // 9x9 board from an 81 character line, '0' for an empty cell
+    static int[][] parse(String puzzle) {
+        int[][] board = new int[9][9];
+        for (int i = 0; i < 81; i++) {
+            board[i / 9][i % 9] = puzzle.charAt(i) - '0';
+        }
+        return board;
+    }
+}